@@ -31,6 +31,8 @@ public class PrivateChests implements ModInitializer {
 		// Register event handlers
 		com.simpleforapanda.privatechests.event.ContainerEventHandler.register();
 		com.simpleforapanda.privatechests.event.BlockBreakHandler.register();
+		com.simpleforapanda.privatechests.event.LevelEventHandler.register();
+		com.simpleforapanda.privatechests.event.PlayerConnectionHandler.register();
 
 		// Register commands
 		CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> {
@@ -2,14 +2,20 @@ package com.simpleforapanda.privatechests.command;
 
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
 import com.simpleforapanda.privatechests.PrivateChests;
 import com.simpleforapanda.privatechests.config.ModConfig;
 import com.simpleforapanda.privatechests.model.LockRecord;
 import com.simpleforapanda.privatechests.state.LockState;
+import com.simpleforapanda.privatechests.state.LockStorage;
+import com.simpleforapanda.privatechests.state.LockSweeper;
 import com.simpleforapanda.privatechests.util.ContainerUtils;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
+import net.minecraft.commands.SharedSuggestionProvider;
 import net.minecraft.commands.arguments.coordinates.BlockPosArgument;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
@@ -17,18 +23,29 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.permissions.Permissions;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
 
 import java.text.SimpleDateFormat;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Admin commands for managing private chests.
  */
 public class PrivateChestsCommand {
+    // How far /private_chests nearest searches, in chunks
+    private static final int NEAREST_MAX_CHUNK_RADIUS = 32;
+
+    // Largest area /private_chests list_in_area searches: 10 chunks around the player, or a box as wide
+    private static final int AREA_MAX_BLOCK_RADIUS = 160;
+    private static final int AREA_MAX_BOX_CHUNKS = 21;
 
     public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
         // Register main command: /private_chests
@@ -48,12 +65,45 @@ public class PrivateChestsCommand {
                     .then(Commands.argument("radius", IntegerArgumentType.integer(0, 10))
                         .executes(ctx -> executeListInArea(ctx, IntegerArgumentType.getInteger(ctx, "radius")))
                     )
+                    .then(Commands.literal("blocks")
+                        .then(Commands.argument("radius", IntegerArgumentType.integer(1, AREA_MAX_BLOCK_RADIUS))
+                            .executes(ctx -> executeListInRadius(ctx, IntegerArgumentType.getInteger(ctx, "radius")))
+                        )
+                    )
+                    .then(Commands.literal("box")
+                        .then(Commands.argument("from", BlockPosArgument.blockPos())
+                            .then(Commands.argument("to", BlockPosArgument.blockPos())
+                                .executes(PrivateChestsCommand::executeListInBox)
+                            )
+                        )
+                    )
+                )
+                .then(Commands.literal("list_by_owner")
+                    .then(Commands.argument("owner", StringArgumentType.word())
+                        .suggests(PrivateChestsCommand::suggestOwners)
+                        .executes(PrivateChestsCommand::executeListByOwner)
+                    )
+                )
+                .then(Commands.literal("unlock_by_owner")
+                    .then(Commands.argument("owner", StringArgumentType.word())
+                        .suggests(PrivateChestsCommand::suggestOwners)
+                        .executes(PrivateChestsCommand::executeUnlockByOwner)
+                    )
+                )
+                .then(Commands.literal("nearest")
+                    .executes(ctx -> executeNearest(ctx, 5))
+                    .then(Commands.argument("count", IntegerArgumentType.integer(1, 50))
+                        .executes(ctx -> executeNearest(ctx, IntegerArgumentType.getInteger(ctx, "count")))
+                    )
                 )
                 .then(Commands.literal("info")
                     .then(Commands.argument("pos", BlockPosArgument.blockPos())
                         .executes(PrivateChestsCommand::executeInfo)
                     )
                 )
+                .then(Commands.literal("stats")
+                    .executes(PrivateChestsCommand::executeStats)
+                )
         );
 
         // Register shorter alias: /pchests
@@ -71,9 +121,8 @@ public class PrivateChestsCommand {
         try {
             BlockPos pos = BlockPosArgument.getBlockPos(ctx, "pos");
             CommandSourceStack source = ctx.getSource();
-            MinecraftServer server = source.getServer();
             ServerLevel level = source.getLevel();
-            LockState lockState = LockState.get(server);
+            LockState lockState = LockState.get(level);
 
             // Get container group at position
             Set<BlockPos> containerGroup = ContainerUtils.getContainerGroup(level, pos);
@@ -109,13 +158,18 @@ public class PrivateChestsCommand {
 
     /**
      * Execute /private_chests list
+     * Lists locks from every dimension, each store queried separately.
      */
     private static int executeList(CommandContext<CommandSourceStack> ctx) {
         CommandSourceStack source = ctx.getSource();
         MinecraftServer server = source.getServer();
-        LockState lockState = LockState.get(server);
 
-        Collection<LockRecord> locks = lockState.getAllLocks();
+        List<LevelLock> locks = new ArrayList<>();
+        for (ServerLevel level : server.getAllLevels()) {
+            for (LockRecord lock : LockState.get(level).getAllLocks()) {
+                locks.add(new LevelLock(level, lock));
+            }
+        }
         int totalCount = locks.size();
 
         if (totalCount == 0) {
@@ -131,10 +185,10 @@ public class PrivateChestsCommand {
 
         if (totalCount > maxEntries) {
             // Show abbreviated list
-            List<LockRecord> lockList = locks.stream().limit(previewEntries).toList();
+            List<LevelLock> lockList = locks.stream().limit(previewEntries).toList();
 
-            for (LockRecord lock : lockList) {
-                sendLockInfo(source, lock, server);
+            for (LevelLock entry : lockList) {
+                sendLockInfo(source, entry.lock(), entry.level());
             }
 
             source.sendSuccess(() -> Component.literal(
@@ -142,14 +196,125 @@ public class PrivateChestsCommand {
             ), false);
         } else {
             // Show full list
-            for (LockRecord lock : locks) {
-                sendLockInfo(source, lock, server);
+            for (LevelLock entry : locks) {
+                sendLockInfo(source, entry.lock(), entry.level());
             }
         }
 
         return totalCount;
     }
 
+    /**
+     * Execute /private_chests list_by_owner <owner>
+     * Lists the owner's locks from every dimension.
+     */
+    private static int executeListByOwner(CommandContext<CommandSourceStack> ctx) {
+        CommandSourceStack source = ctx.getSource();
+        MinecraftServer server = source.getServer();
+        String ownerName = StringArgumentType.getString(ctx, "owner");
+
+        Optional<UUID> ownerOpt = findOwner(server, ownerName);
+        if (ownerOpt.isEmpty()) {
+            source.sendFailure(Component.literal("No private chests owned by " + ownerName + "."));
+            return 0;
+        }
+        UUID ownerUuid = ownerOpt.get();
+
+        int totalCount = 0;
+        for (ServerLevel level : server.getAllLevels()) {
+            totalCount += LockState.get(level).getLockCountByOwner(ownerUuid);
+        }
+
+        ModConfig config = PrivateChests.getConfig();
+        int shownCount = totalCount > config.getListMaxEntries() ? config.getListPreviewEntries() : totalCount;
+        int finalTotal = totalCount;
+
+        source.sendSuccess(() -> Component.literal(
+            "===== Private Chests owned by " + ownerName + " (" + finalTotal + " total) ====="
+        ), false);
+
+        // Only collect as many locks as will be shown
+        int shown = 0;
+        for (ServerLevel level : server.getAllLevels()) {
+            for (LockRecord lock : LockState.get(level).getLocksByOwner(ownerUuid)) {
+                if (shown == shownCount) {
+                    break;
+                }
+                sendLockInfo(source, lock, level);
+                shown++;
+            }
+        }
+
+        if (shownCount < totalCount) {
+            source.sendSuccess(() -> Component.literal(
+                "... and " + (finalTotal - shownCount) + " more."
+            ), false);
+        }
+
+        return totalCount;
+    }
+
+    /**
+     * Execute /private_chests unlock_by_owner <owner>
+     * Removes every lock the owner has, in every dimension.
+     */
+    private static int executeUnlockByOwner(CommandContext<CommandSourceStack> ctx) {
+        CommandSourceStack source = ctx.getSource();
+        MinecraftServer server = source.getServer();
+        String ownerName = StringArgumentType.getString(ctx, "owner");
+
+        Optional<UUID> ownerOpt = findOwner(server, ownerName);
+        if (ownerOpt.isEmpty()) {
+            source.sendFailure(Component.literal("No private chests owned by " + ownerName + "."));
+            return 0;
+        }
+        UUID ownerUuid = ownerOpt.get();
+
+        int removedCount = 0;
+        for (ServerLevel level : server.getAllLevels()) {
+            LockState lockState = LockState.get(level);
+            for (LockRecord lock : lockState.getLocksByOwner(ownerUuid)) {
+                lockState.removeLock(lock.getContainerPositions().iterator().next());
+                removedCount++;
+            }
+        }
+
+        int finalCount = removedCount;
+        source.sendSuccess(() -> Component.literal(
+            "Unlocked " + finalCount + " container(s) owned by " + ownerName
+        ), true);
+
+        PrivateChests.LOGGER.info("Admin {} unlocked {} container(s) owned by {} ({})",
+            source.getTextName(), removedCount, ownerName, ownerUuid);
+
+        return removedCount;
+    }
+
+    /**
+     * Suggest the names of lock owners from every dimension.
+     */
+    private static CompletableFuture<Suggestions> suggestOwners(CommandContext<CommandSourceStack> ctx, SuggestionsBuilder builder) {
+        Set<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (ServerLevel level : ctx.getSource().getServer().getAllLevels()) {
+            names.addAll(LockState.get(level).getOwners().values());
+        }
+        return SharedSuggestionProvider.suggest(names, builder);
+    }
+
+    /**
+     * Find the UUID of a lock owner by the name stored on their locks (case-insensitive).
+     */
+    private static Optional<UUID> findOwner(MinecraftServer server, String ownerName) {
+        for (ServerLevel level : server.getAllLevels()) {
+            for (Map.Entry<UUID, String> owner : LockState.get(level).getOwners().entrySet()) {
+                if (owner.getValue().equalsIgnoreCase(ownerName)) {
+                    return Optional.of(owner.getKey());
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
     /**
      * Execute /private_chests info <pos>
      */
@@ -157,9 +322,8 @@ public class PrivateChestsCommand {
         try {
             BlockPos pos = BlockPosArgument.getBlockPos(ctx, "pos");
             CommandSourceStack source = ctx.getSource();
-            MinecraftServer server = source.getServer();
             ServerLevel level = source.getLevel();
-            LockState lockState = LockState.get(server);
+            LockState lockState = LockState.get(level);
 
             // Get container group at position
             Set<BlockPos> containerGroup = ContainerUtils.getContainerGroup(level, pos);
@@ -220,8 +384,8 @@ public class PrivateChestsCommand {
             return 0;
         }
 
-        MinecraftServer server = source.getServer();
-        LockState lockState = LockState.get(server);
+        ServerLevel level = player.level();
+        LockState lockState = LockState.get(level);
         BlockPos centerPos = player.blockPosition();
 
         List<LockRecord> locks = lockState.getLocksInArea(centerPos, chunkRadius);
@@ -238,30 +402,179 @@ public class PrivateChestsCommand {
         ), false);
 
         for (LockRecord lock : locks) {
-            sendLockInfo(source, lock, server);
+            sendLockInfo(source, lock, level);
         }
 
         return locks.size();
     }
 
+    /**
+     * Execute /private_chests list_in_area blocks <radius>
+     */
+    private static int executeListInRadius(CommandContext<CommandSourceStack> ctx, int blockRadius) {
+        CommandSourceStack source = ctx.getSource();
+
+        // Get source position
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("This command must be run by a player or from a specific location."));
+            return 0;
+        }
+
+        ServerLevel level = player.level();
+        List<LockRecord> locks = LockState.get(level).getLocksInRadius(player.blockPosition(), blockRadius);
+
+        if (locks.isEmpty()) {
+            source.sendSuccess(() -> Component.literal(
+                "No private chests found within " + blockRadius + " blocks of you."
+            ), false);
+            return 0;
+        }
+
+        source.sendSuccess(() -> Component.literal(
+            "===== Private Chests in Area (" + locks.size() + " found) ====="
+        ), false);
+
+        for (LockRecord lock : locks) {
+            sendLockInfo(source, lock, level);
+        }
+
+        return locks.size();
+    }
+
+    /**
+     * Execute /private_chests list_in_area box <from> <to>
+     */
+    private static int executeListInBox(CommandContext<CommandSourceStack> ctx) {
+        CommandSourceStack source = ctx.getSource();
+        ServerLevel level = source.getLevel();
+
+        BoundingBox box = BoundingBox.fromCorners(BlockPosArgument.getBlockPos(ctx, "from"), BlockPosArgument.getBlockPos(ctx, "to"));
+
+        if ((box.maxX() >> 4) - (box.minX() >> 4) >= AREA_MAX_BOX_CHUNKS || (box.maxZ() >> 4) - (box.minZ() >> 4) >= AREA_MAX_BOX_CHUNKS) {
+            source.sendFailure(Component.literal("Box too large. Max: " + AREA_MAX_BOX_CHUNKS + "x" + AREA_MAX_BOX_CHUNKS + " chunks."));
+            return 0;
+        }
+
+        List<LockRecord> locks = LockState.get(level).getLocksInBox(box);
+
+        if (locks.isEmpty()) {
+            source.sendSuccess(() -> Component.literal("No private chests found in that box."), false);
+            return 0;
+        }
+
+        source.sendSuccess(() -> Component.literal(
+            "===== Private Chests in Area (" + locks.size() + " found) ====="
+        ), false);
+
+        for (LockRecord lock : locks) {
+            sendLockInfo(source, lock, level);
+        }
+
+        return locks.size();
+    }
+
+    /**
+     * Execute /private_chests nearest [count]
+     */
+    private static int executeNearest(CommandContext<CommandSourceStack> ctx, int count) {
+        CommandSourceStack source = ctx.getSource();
+
+        // Get source position
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("This command must be run by a player or from a specific location."));
+            return 0;
+        }
+
+        ServerLevel level = player.level();
+        LockState lockState = LockState.get(level);
+        BlockPos centerPos = player.blockPosition();
+
+        List<LockRecord> locks = lockState.getNearestLocks(centerPos, count, NEAREST_MAX_CHUNK_RADIUS);
+
+        if (locks.isEmpty()) {
+            source.sendSuccess(() -> Component.literal(
+                "No private chests found within " + NEAREST_MAX_CHUNK_RADIUS + " chunks of you."
+            ), false);
+            return 0;
+        }
+
+        source.sendSuccess(() -> Component.literal(
+            "===== Nearest Private Chests (" + locks.size() + " found) ====="
+        ), false);
+
+        for (LockRecord lock : locks) {
+            sendLockInfo(source, lock, level);
+        }
+
+        return locks.size();
+    }
+
+    /**
+     * Execute /private_chests stats
+     * Shows per-dimension store sizes and how long the last save took.
+     */
+    private static int executeStats(CommandContext<CommandSourceStack> ctx) {
+        CommandSourceStack source = ctx.getSource();
+        MinecraftServer server = source.getServer();
+
+        source.sendSuccess(() -> Component.literal("===== Private Chests Stats ====="), false);
+
+        int totalCount = 0;
+        for (ServerLevel level : server.getAllLevels()) {
+            LockState lockState = LockState.get(level);
+            LockStorage storage = lockState.getStorage();
+            int lockCount = lockState.getLockCount();
+            totalCount += lockCount;
+
+            String dimension = level.dimension().identifier().toString();
+            source.sendSuccess(() -> Component.literal(
+                "- " + dimension + ": " + lockCount + " locks, " + storage.getJournalEntries() + " journaled changes"
+            ), false);
+            source.sendSuccess(() -> Component.literal(
+                "  Last save: snapshot " + (storage.getLastSnapshotNanos() / 1_000) + " us on server thread, "
+                    + "write " + (storage.getLastWriteNanos() / 1_000_000) + " ms in background"
+            ), false);
+
+            LockSweeper sweeper = lockState.getSweeper();
+            source.sendSuccess(() -> Component.literal(
+                "  Sweep: " + Math.round(sweeper.getPassProgress() * 100) + "% of current pass, "
+                    + sweeper.getCompletedPasses() + " passes done; last pass took " + (sweeper.getLastPassMillis() / 1_000) + " s, "
+                    + "skipped " + sweeper.getLastPassSkipped() + " unloaded, removed " + sweeper.getLastPassRemoved() + " dangling"
+            ), false);
+            source.sendSuccess(() -> Component.literal(
+                "  Chunk loads: verified " + sweeper.getVerifiedOnLoad() + " locks, removed " + sweeper.getRemovedOnLoad() + " dangling"
+            ), false);
+            source.sendSuccess(() -> Component.literal(
+                "  Block changes: updated " + sweeper.getUpdatedOnChange() + " locks, removed " + sweeper.getRemovedOnChange()
+            ), false);
+        }
+
+        return totalCount;
+    }
+
     /**
      * Send lock information to the command source.
+     * The dimension is only shown for locks outside the source's own dimension.
      */
-    private static void sendLockInfo(CommandSourceStack source, LockRecord lock, MinecraftServer server) {
+    private static void sendLockInfo(CommandSourceStack source, LockRecord lock, ServerLevel level) {
         // Use cached owner name from lock record
         String ownerName = lock.getOwnerName();
 
-        // Get container type (need to get level from one of the container positions)
-        BlockPos containerPos = lock.getContainerPositions().iterator().next();
-        ServerLevel level = source.getLevel();
         String containerType = ContainerUtils.getContainerTypeName(level, lock.getContainerPositions());
         String position = ContainerUtils.positionToString(ContainerUtils.getPrimaryPosition(lock.getContainerPositions()));
+        String dimension = level == source.getLevel() ? "" : " (" + level.dimension().identifier() + ")";
 
         source.sendSuccess(() -> Component.literal(
-            "- " + containerType + " at " + position + " | Owner: " + ownerName
+            "- " + containerType + " at " + position + dimension + " | Owner: " + ownerName
         ), false);
     }
 
+    /**
+     * A lock together with the dimension whose store holds it.
+     */
+    private record LevelLock(ServerLevel level, LockRecord lock) {
+    }
+
     /**
      * Format a timestamp (milliseconds) to a human-readable date/time string.
      * Includes timezone to help players in different timezones.
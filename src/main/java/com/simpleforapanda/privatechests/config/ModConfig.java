@@ -3,6 +3,7 @@ package com.simpleforapanda.privatechests.config;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.simpleforapanda.privatechests.PrivateChests;
+import com.simpleforapanda.privatechests.service.AccessDecisionCache;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -16,6 +17,7 @@ public class ModConfig {
     private static ModConfig instance;
 
     // Floodgate prefix for Bedrock players (commonly ".")
+    // Lock records re-normalize their allowed users the first time they see a changed prefix
     public String floodgatePrefix = ".";
 
     // Admin permission level (2 = operator can break blocks, 3 = operator can use commands)
@@ -30,6 +32,15 @@ public class ModConfig {
     // Disable protection if the owner is banned
     public boolean disableProtectionIfOwnerBanned = true;
 
+    // Number of journaled lock changes before they are folded into a new snapshot
+    public int journalCompactionThreshold = 1000;
+
+    // Time per server tick, in microseconds, spent looking for dangling locks (0 disables the sweep)
+    public int sweepBudgetMicros = 200;
+
+    // Minimum time, in seconds, between the starts of two sweeps over the same dimension
+    public int sweepPassIntervalSeconds = 60;
+
     /**
      * Load the configuration from file, or create default if it doesn't exist.
      */
@@ -54,6 +65,9 @@ public class ModConfig {
         // Validate and fix invalid values
         instance.validate();
 
+        // Decisions made under the previous settings no longer apply
+        AccessDecisionCache.invalidateAll();
+
         return instance;
     }
 
@@ -88,6 +102,24 @@ public class ModConfig {
             needsSave = true;
         }
 
+        if (journalCompactionThreshold < 1) {
+            PrivateChests.LOGGER.warn("Invalid journalCompactionThreshold ({}), must be >= 1. Using default: 1000", journalCompactionThreshold);
+            journalCompactionThreshold = 1000;
+            needsSave = true;
+        }
+
+        if (sweepBudgetMicros < 0) {
+            PrivateChests.LOGGER.warn("Invalid sweepBudgetMicros ({}), must be >= 0. Using default: 200", sweepBudgetMicros);
+            sweepBudgetMicros = 200;
+            needsSave = true;
+        }
+
+        if (sweepPassIntervalSeconds < 0) {
+            PrivateChests.LOGGER.warn("Invalid sweepPassIntervalSeconds ({}), must be >= 0. Using default: 60", sweepPassIntervalSeconds);
+            sweepPassIntervalSeconds = 60;
+            needsSave = true;
+        }
+
         if (needsSave) {
             PrivateChests.LOGGER.info("Configuration had invalid values, saving corrected version");
             save(instance != null ?
@@ -141,4 +173,16 @@ public class ModConfig {
     public boolean isDisableProtectionIfOwnerBanned() {
         return disableProtectionIfOwnerBanned;
     }
+
+    public int getJournalCompactionThreshold() {
+        return journalCompactionThreshold;
+    }
+
+    public int getSweepBudgetMicros() {
+        return sweepBudgetMicros;
+    }
+
+    public int getSweepPassIntervalSeconds() {
+        return sweepPassIntervalSeconds;
+    }
 }
@@ -0,0 +1,15 @@
+package com.simpleforapanda.privatechests.duck;
+
+/**
+ * Implemented by every block (see {@code BlockMixin}) so its lock classification
+ * (see {@code BlockClassification}) is a single field read.
+ */
+public interface ClassifiedBlock {
+
+    /**
+     * Get the block's classification, or 0 if blocks haven't been classified yet.
+     */
+    byte privateChests$getKind();
+
+    void privateChests$setKind(byte kind);
+}
@@ -0,0 +1,26 @@
+package com.simpleforapanda.privatechests.duck;
+
+/**
+ * Implemented by hopper block entities (see {@code HopperBlockMixin}) so a hopper can
+ * remember that a lock blocks it, and skip re-checking until that lock changes.
+ */
+public interface DormantHopper {
+
+    /**
+     * Get the dormancy of the hopper's extract ({@code true}) or insert ({@code false}) side,
+     * or null if that side is not dormant.
+     */
+    Dormancy privateChests$getDormancy(boolean extracting);
+
+    /**
+     * Set or clear (null) the dormancy of the hopper's extract or insert side.
+     */
+    void privateChests$setDormancy(boolean extracting, Dormancy dormancy);
+
+    /**
+     * Why a hopper side is dormant: the packed position it targets, and the epochs of the
+     * lock blocking it and of the global access state at the time it was blocked.
+     */
+    record Dormancy(long targetPos, long lockEpoch, long globalEpoch) {
+    }
+}
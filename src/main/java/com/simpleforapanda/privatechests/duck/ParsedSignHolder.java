@@ -0,0 +1,17 @@
+package com.simpleforapanda.privatechests.duck;
+
+import com.simpleforapanda.privatechests.util.SignUtils;
+
+/**
+ * Implemented by sign block entities (see {@code SignBlockEntityMixin}) so the parsed
+ * [private] marker and user names are kept with the sign until its text changes.
+ */
+public interface ParsedSignHolder {
+
+    /**
+     * Get the parsed text of the sign, or null if it changed since it was last parsed.
+     */
+    SignUtils.ParsedSign privateChests$getParsedSign();
+
+    void privateChests$setParsedSign(SignUtils.ParsedSign parsedSign);
+}
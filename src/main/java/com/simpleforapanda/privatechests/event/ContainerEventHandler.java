@@ -1,9 +1,8 @@
 package com.simpleforapanda.privatechests.event;
 
 import com.simpleforapanda.privatechests.PrivateChests;
-import com.simpleforapanda.privatechests.config.ModConfig;
 import com.simpleforapanda.privatechests.model.LockRecord;
-import com.simpleforapanda.privatechests.service.AccessControlService;
+import com.simpleforapanda.privatechests.service.ProtectionEngine;
 import com.simpleforapanda.privatechests.state.LockState;
 import com.simpleforapanda.privatechests.util.ContainerUtils;
 import com.simpleforapanda.privatechests.util.SignUtils;
@@ -15,17 +14,14 @@ import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.player.Player;
-import net.minecraft.core.Direction;
 import net.minecraft.world.item.BlockItem;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.SignItem;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.ChestBlock;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.BlockHitResult;
 
-import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -64,90 +60,44 @@ public class ContainerEventHandler {
         BlockState clickedState = level.getBlockState(clickedPos);
         ItemStack heldItem = player.getItemInHand(hand);
 
-        // Check if player is trying to interact with a private sign
+        // Only the owner can edit a private sign (not allowed users)
         if (SignUtils.isWallSign(clickedState)) {
-            LockState lockState = LockState.get(serverLevel.getServer());
-
-            // Check if this is a private sign for a locked container
-            Optional<BlockPos> attachedPos = SignUtils.getAttachedBlock(level, clickedPos);
-            if (attachedPos.isPresent()) {
-                Set<BlockPos> containerGroup = ContainerUtils.getContainerGroup(level, attachedPos.get());
-
-                // Check if any part of the container group is locked
-                for (BlockPos pos : containerGroup) {
-                    Optional<LockRecord> lockOpt = lockState.getLock(pos);
-                    if (lockOpt.isPresent()) {
-                        LockRecord lock = lockOpt.get();
-
-                        // Check if this is the private sign for this lock
-                        if (lock.getSignPos().equals(clickedPos)) {
-                            // Check if player can edit this sign
-                            boolean isOwner = player.getUUID().equals(lock.getOwnerUuid());
-                            boolean isAdmin = AccessControlService.isAdmin(serverPlayer);
-                            ModConfig config = PrivateChests.getConfig();
-                            boolean isAllowed = lock.isUserAllowed(player.getName().getString(), config.getFloodgatePrefix());
-
-                            // Only owner can edit the sign (not allowed users)
-                            if (!isOwner && !isAdmin) {
-                                serverPlayer.sendSystemMessage(Component.literal(
-                                    "You cannot edit someone else's [private] sign."
-                                ));
-                                return InteractionResult.FAIL;
-                            }
-                        }
-                    }
-                }
+            ProtectionEngine.Verdict verdict = ProtectionEngine.check(serverLevel, clickedPos, clickedState, ProtectionEngine.Action.SIGN_EDIT, serverPlayer);
+            if (!verdict.allowed()) {
+                serverPlayer.sendSystemMessage(Component.literal(verdict.message()));
+                return InteractionResult.FAIL;
             }
         }
 
         // Check if player is trying to place a chest next to a locked chest
-        if (heldItem.getItem() instanceof BlockItem blockItem) {
-            Block block = blockItem.getBlock();
-            if (block instanceof ChestBlock) {
-                // Calculate where the chest would be placed
-                BlockPos placementPos;
-                if (clickedState.canBeReplaced()) {
-                    // Placing in the clicked position (e.g., tall grass)
-                    placementPos = clickedPos;
-                } else {
-                    // Placing on the face of the clicked block
-                    placementPos = clickedPos.relative(hitResult.getDirection());
-                }
-
-                // Check all adjacent positions for locked chests
-                LockState lockState = LockState.get(serverLevel.getServer());
-                for (Direction dir : Direction.Plane.HORIZONTAL) {
-                    BlockPos adjacentPos = placementPos.relative(dir);
-                    BlockState adjacentState = level.getBlockState(adjacentPos);
-
-                    // If there's a chest adjacent to where we're placing
-                    if (adjacentState.getBlock() instanceof ChestBlock) {
-                        // Check if that chest is locked
-                        Optional<LockRecord> lockOpt = lockState.getLock(adjacentPos);
-                        if (lockOpt.isPresent()) {
-                            LockRecord lock = lockOpt.get();
-
-                            // Only owner and admins can extend locked chests
-                            if (!player.getUUID().equals(lock.getOwnerUuid()) && !AccessControlService.isAdmin(serverPlayer)) {
-                                serverPlayer.sendSystemMessage(Component.literal(
-                                    "You cannot place a chest next to someone else's locked chest."
-                                ));
-                                // Resync inventory
-                                serverPlayer.containerMenu.sendAllDataToRemote();
-                                return InteractionResult.FAIL;
-                            } else {
-                                // Owner/admin is extending their locked chest
-                                // Schedule task to update lock record after placement
-                                final BlockPos finalPlacementPos = placementPos;
-                                final LockRecord finalLock = lock;
-                                serverLevel.getServer().execute(() -> {
-                                    // Check if chest was actually placed and update lock
-                                    updateLockForExtendedChest(serverLevel, finalPlacementPos, finalLock);
-                                });
-                            }
-                        }
-                    }
-                }
+        if (heldItem.getItem() instanceof BlockItem blockItem && blockItem.getBlock() instanceof ChestBlock) {
+            // Calculate where the chest would be placed
+            BlockPos placementPos;
+            if (clickedState.canBeReplaced()) {
+                // Placing in the clicked position (e.g., tall grass)
+                placementPos = clickedPos;
+            } else {
+                // Placing on the face of the clicked block
+                placementPos = clickedPos.relative(hitResult.getDirection());
+            }
+
+            // Only owner and admins can extend locked chests
+            ProtectionEngine.Verdict verdict = ProtectionEngine.check(serverLevel, placementPos, clickedState, ProtectionEngine.Action.PLACE_ADJACENT, serverPlayer);
+            if (!verdict.allowed()) {
+                serverPlayer.sendSystemMessage(Component.literal(verdict.message()));
+                // Resync inventory
+                serverPlayer.containerMenu.sendAllDataToRemote();
+                return InteractionResult.FAIL;
+            }
+
+            if (verdict.lock() != null) {
+                // Owner/admin is extending their locked chest
+                // Schedule task to update lock record after placement
+                LockRecord lock = verdict.lock();
+                serverLevel.getServer().execute(() -> {
+                    // Check if chest was actually placed and update lock
+                    updateLockForExtendedChest(serverLevel, placementPos, lock);
+                });
             }
         }
 
@@ -157,35 +107,18 @@ public class ContainerEventHandler {
         }
 
         // Check if player is trying to place a sign on a locked container they don't own
-        if (heldItem.getItem() instanceof SignItem) {
-            LockState lockState = LockState.get(serverLevel.getServer());
-            Optional<LockRecord> lockOpt = lockState.getLock(clickedPos);
-
-            if (lockOpt.isPresent()) {
-                LockRecord lock = lockOpt.get();
-
-                // Allow owner and admins to place signs
-                if (!player.getUUID().equals(lock.getOwnerUuid()) && !AccessControlService.isAdmin(serverPlayer)) {
-                    serverPlayer.sendSystemMessage(Component.literal(
-                        "You cannot place a sign on someone else's locked container."
-                    ));
-                    // Resync the player's inventory to fix ghost item
-                    serverPlayer.containerMenu.sendAllDataToRemote();
-                    return InteractionResult.FAIL;
-                }
+        ProtectionEngine.Action action = heldItem.getItem() instanceof SignItem
+            ? ProtectionEngine.Action.SIGN_EDIT
+            : ProtectionEngine.Action.OPEN;
+        ProtectionEngine.Verdict verdict = ProtectionEngine.check(serverLevel, clickedPos, clickedState, action, serverPlayer);
+
+        if (!verdict.allowed()) {
+            // Deny and send message to player
+            serverPlayer.sendSystemMessage(Component.literal(verdict.message()));
+            if (action == ProtectionEngine.Action.SIGN_EDIT) {
+                // Resync the player's inventory to fix ghost item
+                serverPlayer.containerMenu.sendAllDataToRemote();
             }
-        }
-
-        // Check access control for opening the container
-        AccessControlService.AccessResult result = AccessControlService.canAccess(
-            serverPlayer,
-            level,
-            clickedPos
-        );
-
-        if (!result.allowed()) {
-            // Deny access and send message to player
-            serverPlayer.sendSystemMessage(Component.literal(result.message()));
             return InteractionResult.FAIL;
         }
 
@@ -203,7 +136,7 @@ public class ContainerEventHandler {
             return; // Chest wasn't placed, nothing to update
         }
 
-        LockState lockState = LockState.get(level.getServer());
+        LockState lockState = LockState.get(level);
 
         // Get the new container group including the newly placed chest
         Set<BlockPos> newContainerGroup = ContainerUtils.getContainerGroup(level, newChestPos);
@@ -216,12 +149,14 @@ public class ContainerEventHandler {
                 existingLock.getOwnerName(),
                 existingLock.getSignPos(),
                 newContainerGroup,
-                existingLock.getAllowedUsers()
+                existingLock.getAllowedUsers(),
+                existingLock.getResolvedUsers(),
+                System.currentTimeMillis(),
+                System.currentTimeMillis()
             );
 
-            // Remove old lock and add new one
-            lockState.removeLock(existingLock.getContainerPositions().iterator().next());
-            lockState.addLock(updatedLock);
+            // Swap the old lock for the new one
+            lockState.replaceLock(existingLock, updatedLock);
 
             PrivateChests.LOGGER.info("Updated lock at {} - chest extended from {} to {} positions",
                 existingLock.getSignPos(), existingLock.getContainerPositions().size(), newContainerGroup.size());
@@ -0,0 +1,53 @@
+package com.simpleforapanda.privatechests.event;
+
+import com.simpleforapanda.privatechests.service.BanStatusCache;
+import com.simpleforapanda.privatechests.state.LockState;
+import com.simpleforapanda.privatechests.state.LockSweeper;
+import com.simpleforapanda.privatechests.util.BlockClassification;
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+
+/**
+ * Handles server, level and chunk lifecycle events for the per-dimension lock stores.
+ */
+public class LevelEventHandler {
+
+    public static void register() {
+        // Classify lockable blocks from the tag on server start and on every datapack reload
+        CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> {
+            if (!client) {
+                BlockClassification.rebuild();
+            }
+        });
+
+        // Read owner ban status once the server's user lists are loaded
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> BanStatusCache.rebuild(server.getPlayerList().getBans()));
+
+        // Load each dimension's lock store together with its level
+        ServerWorldEvents.LOAD.register((server, level) -> LockState.get(level));
+
+        // Flush the journal into a final snapshot when the level goes away
+        ServerWorldEvents.UNLOAD.register((server, level) -> LockState.unload(level));
+
+        // Compact long journals alongside the regular world save
+        ServerLifecycleEvents.AFTER_SAVE.register((server, flush, force) -> LockState.afterServerSave(server));
+
+        // Look for dangling locks a little every tick, in every loaded level
+        ServerWorldEvents.LOAD.register(LockSweeper::onLevelLoad);
+        ServerWorldEvents.UNLOAD.register(LockSweeper::onLevelUnload);
+        ServerTickEvents.END_SERVER_TICK.register(LockSweeper::tick);
+
+        // Position resolutions are only reused within one tick
+        ServerTickEvents.END_SERVER_TICK.register(LockState::endTick);
+
+        // Hand legacy (pre per-dimension) locks to the level their sign lives in
+        ServerChunkEvents.CHUNK_LOAD.register(LockState::claimLegacyLocks);
+
+        // Validate locks once per chunk load rather than on every open, and forget that on unload
+        ServerChunkEvents.CHUNK_LOAD.register(LockSweeper::onChunkLoad);
+        ServerChunkEvents.CHUNK_UNLOAD.register(LockSweeper::onChunkUnload);
+    }
+}
@@ -0,0 +1,15 @@
+package com.simpleforapanda.privatechests.event;
+
+import com.simpleforapanda.privatechests.service.AccessDecisionCache;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+
+/**
+ * Handles player connection events.
+ */
+public class PlayerConnectionHandler {
+
+    public static void register() {
+        // Cached access decisions are per player; drop them when the player leaves
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> AccessDecisionCache.forgetPlayer(handler.getPlayer().getUUID()));
+    }
+}
@@ -0,0 +1,26 @@
+package com.simpleforapanda.privatechests.mixin;
+
+import com.simpleforapanda.privatechests.duck.ClassifiedBlock;
+import net.minecraft.world.level.block.Block;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+/**
+ * Mixin to store each block's lock classification on the block itself.
+ */
+@Mixin(Block.class)
+public abstract class BlockMixin implements ClassifiedBlock {
+
+    @Unique
+    private byte privateChests$kind;
+
+    @Override
+    public byte privateChests$getKind() {
+        return privateChests$kind;
+    }
+
+    @Override
+    public void privateChests$setKind(byte kind) {
+        privateChests$kind = kind;
+    }
+}
@@ -1,6 +1,6 @@
 package com.simpleforapanda.privatechests.mixin;
 
-import com.simpleforapanda.privatechests.service.ProtectionService;
+import com.simpleforapanda.privatechests.service.ProtectionEngine;
 import net.minecraft.core.BlockPos;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.ServerExplosion;
@@ -32,7 +32,7 @@ public abstract class ExplosionMixin {
         at = @At("HEAD")
     )
     private void onInteractWithBlocks(List<BlockPos> affectedBlocks, CallbackInfo ci) {
-        // Remove protected blocks from the explosion list
-        affectedBlocks.removeIf(pos -> ProtectionService.isProtected(level, pos));
+        // Remove protected blocks from the explosion list in one batch
+        ProtectionEngine.removeProtected(level, affectedBlocks);
     }
 }
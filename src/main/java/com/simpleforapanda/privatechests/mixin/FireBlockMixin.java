@@ -1,6 +1,6 @@
 package com.simpleforapanda.privatechests.mixin;
 
-import com.simpleforapanda.privatechests.service.ProtectionService;
+import com.simpleforapanda.privatechests.service.ProtectionEngine;
 import net.minecraft.core.BlockPos;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.util.RandomSource;
@@ -28,12 +28,12 @@ public abstract class FireBlockMixin {
         cancellable = true
     )
     private void onCheckBurnOut(Level level, BlockPos pos, int chance, RandomSource random, int age, CallbackInfo ci) {
-        if (level.isClientSide()) {
+        if (!(level instanceof ServerLevel serverLevel)) {
             return;
         }
 
         // If the block at this position is protected, cancel the burn attempt
-        if (ProtectionService.isProtected(level, pos)) {
+        if (ProtectionEngine.findProtectingLock(serverLevel, pos.asLong(), ProtectionEngine.Action.FIRE) != null) {
             ci.cancel();
         }
     }
@@ -1,22 +1,46 @@
 package com.simpleforapanda.privatechests.mixin;
 
+import com.simpleforapanda.privatechests.duck.DormantHopper;
 import com.simpleforapanda.privatechests.service.AutomationBlockService;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.util.Mth;
 import net.minecraft.world.Container;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.Hopper;
 import net.minecraft.world.level.block.entity.HopperBlockEntity;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 /**
  * Mixin to block hoppers from accessing locked containers.
+ * Hopper block entities also remember which of their sides a lock blocks (see {@link DormantHopper}).
  */
 @Mixin(HopperBlockEntity.class)
-public abstract class HopperBlockMixin {
+public abstract class HopperBlockMixin implements DormantHopper {
+
+    @Unique
+    private Dormancy privateChests$extractDormancy;
+
+    @Unique
+    private Dormancy privateChests$insertDormancy;
+
+    @Override
+    public Dormancy privateChests$getDormancy(boolean extracting) {
+        return extracting ? privateChests$extractDormancy : privateChests$insertDormancy;
+    }
+
+    @Override
+    public void privateChests$setDormancy(boolean extracting, Dormancy dormancy) {
+        if (extracting) {
+            privateChests$extractDormancy = dormancy;
+        } else {
+            privateChests$insertDormancy = dormancy;
+        }
+    }
 
     /**
      * Block hopper from extracting items from locked containers.
@@ -32,9 +56,14 @@ public abstract class HopperBlockMixin {
         }
 
         // Get the container above the hopper
-        BlockPos pos = BlockPos.containing(hopper.getLevelX(), hopper.getLevelY() + 1, hopper.getLevelZ());
+        long pos = BlockPos.asLong(Mth.floor(hopper.getLevelX()), Mth.floor(hopper.getLevelY() + 1), Mth.floor(hopper.getLevelZ()));
+
+        // Hopper block entities can go dormant; hopper minecarts are checked every time
+        boolean blocked = hopper instanceof DormantHopper dormantHopper
+            ? AutomationBlockService.isAutomationBlocked(level, pos, dormantHopper, true)
+            : AutomationBlockService.isAutomationBlocked(level, pos);
 
-        if (AutomationBlockService.isAutomationBlocked(level, pos)) {
+        if (blocked) {
             cir.setReturnValue(false);
         }
     }
@@ -54,9 +83,9 @@ public abstract class HopperBlockMixin {
 
         // Check the position the hopper is trying to insert into
         Direction facing = hopper.getBlockState().getValue(net.minecraft.world.level.block.HopperBlock.FACING);
-        BlockPos targetPos = pos.relative(facing);
+        long targetPos = BlockPos.offset(pos.asLong(), facing);
 
-        if (AutomationBlockService.isAutomationBlocked(level, targetPos)) {
+        if (AutomationBlockService.isAutomationBlocked(level, targetPos, (DormantHopper) hopper, false)) {
             cir.setReturnValue(false);
         }
     }
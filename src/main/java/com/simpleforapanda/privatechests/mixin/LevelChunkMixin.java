@@ -0,0 +1,45 @@
+package com.simpleforapanda.privatechests.mixin;
+
+import com.simpleforapanda.privatechests.state.LockSweeper;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Mixin to notice block changes at locked containers and private signs that don't
+ * go through a player, such as /setblock, /fill, pistons and structure placement.
+ */
+@Mixin(LevelChunk.class)
+public abstract class LevelChunkMixin {
+
+    @Shadow
+    @Final
+    Level level;
+
+    /**
+     * Every block change in a loaded chunk ends here; a non-null result means the state changed.
+     * Kept to a chunk check for chunks without locks, since this runs for every block update.
+     */
+    @Inject(
+        method = "setBlockState",
+        at = @At("RETURN")
+    )
+    private void onSetBlockState(BlockPos pos, BlockState state, int flags, CallbackInfoReturnable<BlockState> cir) {
+        if (cir.getReturnValue() == null || !(level instanceof ServerLevel serverLevel)) {
+            return;
+        }
+        if (!serverLevel.getServer().isSameThread()) {
+            return;
+        }
+
+        LockSweeper.onBlockChanged(serverLevel, pos.asLong());
+    }
+}
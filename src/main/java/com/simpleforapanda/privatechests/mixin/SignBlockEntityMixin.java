@@ -0,0 +1,74 @@
+package com.simpleforapanda.privatechests.mixin;
+
+import com.simpleforapanda.privatechests.duck.ParsedSignHolder;
+import com.simpleforapanda.privatechests.state.LockSweeper;
+import com.simpleforapanda.privatechests.util.SignUtils;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.entity.SignBlockEntity;
+import net.minecraft.world.level.block.entity.SignText;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Mixin to keep the parsed text of a sign on the sign, dropping it whenever the text changes,
+ * and to have the lock on a sign revalidated when its text changes.
+ */
+@Mixin(SignBlockEntity.class)
+public abstract class SignBlockEntityMixin implements ParsedSignHolder {
+
+    @Unique
+    private SignUtils.ParsedSign privateChests$parsedSign;
+
+    @Override
+    public SignUtils.ParsedSign privateChests$getParsedSign() {
+        return privateChests$parsedSign;
+    }
+
+    @Override
+    public void privateChests$setParsedSign(SignUtils.ParsedSign parsedSign) {
+        privateChests$parsedSign = parsedSign;
+    }
+
+    /**
+     * Player edits (updateSignText) and dye, glow ink and wax all end up here.
+     */
+    @Inject(
+        method = "setText",
+        at = @At("RETURN")
+    )
+    private void onSetText(SignText text, boolean isFrontText, CallbackInfoReturnable<Boolean> cir) {
+        if (cir.getReturnValueZ()) {
+            privateChests$onTextChanged();
+        }
+    }
+
+    /**
+     * Loading from disk or a command such as /data replaces both sides at once.
+     */
+    @Inject(
+        method = "loadAdditional",
+        at = @At("TAIL")
+    )
+    private void onLoadAdditional(CallbackInfo ci) {
+        privateChests$onTextChanged();
+    }
+
+    /**
+     * Drop the parsed text, and for a sign already in a level treat the change like a block change:
+     * a lock on this sign isn't trusted until the sweeper has looked at it again.
+     * Signs loading with their chunk aren't in a level yet; chunk loads are validated separately.
+     */
+    @Unique
+    private void privateChests$onTextChanged() {
+        privateChests$parsedSign = null;
+
+        SignBlockEntity sign = (SignBlockEntity) (Object) this;
+        if (sign.getLevel() instanceof ServerLevel serverLevel && serverLevel.getServer().isSameThread()) {
+            LockSweeper.onBlockChanged(serverLevel, sign.getBlockPos().asLong());
+        }
+    }
+}
@@ -1,10 +1,7 @@
 package com.simpleforapanda.privatechests.mixin;
 
 import com.simpleforapanda.privatechests.PrivateChests;
-import com.simpleforapanda.privatechests.model.LockRecord;
-import com.simpleforapanda.privatechests.service.AccessControlService;
-import com.simpleforapanda.privatechests.state.LockState;
-import com.simpleforapanda.privatechests.util.ContainerUtils;
+import com.simpleforapanda.privatechests.service.ProtectionEngine;
 import com.simpleforapanda.privatechests.util.SignUtils;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
@@ -20,9 +17,6 @@ import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
-import java.util.Optional;
-import java.util.Set;
-
 /**
  * Mixin to intercept sign break attempts at the packet level.
  *
@@ -75,8 +69,15 @@ public abstract class SignBreakPacketMixin {
         }
 
         ServerPlayer player = getPlayer();
-        BlockPos pos = packet.getPos();
         Level level = player.level();
+
+        // Packets arrive on the network thread first; vanilla re-queues them onto the server
+        // thread, where this runs again. Lock state and the world are only read there.
+        if (!((ServerLevel) level).getServer().isSameThread()) {
+            return;
+        }
+
+        BlockPos pos = packet.getPos();
         BlockState state = level.getBlockState(pos);
 
         // Only process wall signs
@@ -85,19 +86,17 @@ public abstract class SignBreakPacketMixin {
         }
 
         // Check if this is a protected private sign
-        if (isProtectedPrivateSign(player, level, pos)) {
+        ProtectionEngine.Verdict verdict = ProtectionEngine.check((ServerLevel) level, pos, state, ProtectionEngine.Action.BREAK, player);
+        if (!verdict.allowed()) {
             // Cancel START_DESTROY_BLOCK - prevents the break from starting
             ci.cancel();
 
             PrivateChests.LOGGER.info("Denied break attempt on protected sign at {} by {}",
                 pos, player.getName().getString());
 
-            player.sendSystemMessage(Component.literal(
-                "You cannot break someone else's [private] sign."
-            ));
+            player.sendSystemMessage(Component.literal(verdict.message()));
 
             // Send block state update IMMEDIATELY to keep sign visible on client
-            // Safe to do outside server thread as we're only reading block state
             try {
                 BlockState currentState = level.getBlockState(pos);
                 player.connection.send(new net.minecraft.network.protocol.game.ClientboundBlockUpdatePacket(pos, currentState));
@@ -105,7 +104,7 @@ public abstract class SignBreakPacketMixin {
                 PrivateChests.LOGGER.error("Failed to send block update for sign at {}", pos, e);
             }
 
-            // Send sign text data on server thread (required for safe block entity access)
+            // Send sign text data once this packet has been handled, so the client accepts it
             ((ServerLevel) level).getServer().execute(() -> {
                 try {
                     var blockEntity = level.getBlockEntity(pos);
@@ -128,44 +127,4 @@ public abstract class SignBreakPacketMixin {
             });
         }
     }
-
-    /**
-     * Check if a sign is a protected private sign that the player cannot break.
-     */
-    private boolean isProtectedPrivateSign(ServerPlayer player, Level level, BlockPos signPos) {
-        if (!(level instanceof ServerLevel serverLevel)) {
-            return false;
-        }
-
-        LockState lockState = LockState.get(serverLevel.getServer());
-
-        // Check if this sign is attached to a locked container
-        Optional<BlockPos> attachedPos = SignUtils.getAttachedBlock(level, signPos);
-        if (attachedPos.isEmpty()) {
-            return false;
-        }
-
-        // Get the container group
-        Set<BlockPos> containerGroup = ContainerUtils.getContainerGroup(level, attachedPos.get());
-
-        // Check if any part of the container group has a lock
-        for (BlockPos containerPos : containerGroup) {
-            Optional<LockRecord> lockOpt = lockState.getLock(containerPos);
-            if (lockOpt.isPresent()) {
-                LockRecord lock = lockOpt.get();
-
-                // Check if this is the private sign for this lock
-                if (lock.getSignPos().equals(signPos)) {
-                    // Check if player can break it
-                    boolean isOwner = player.getUUID().equals(lock.getOwnerUuid());
-                    boolean isAdmin = AccessControlService.isAdmin(player);
-
-                    // If not owner or admin, it's protected
-                    return !isOwner && !isAdmin;
-                }
-            }
-        }
-
-        return false;
-    }
 }
@@ -0,0 +1,15 @@
+package com.simpleforapanda.privatechests.mixin;
+
+import net.minecraft.server.players.StoredUserEntry;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+/**
+ * Accessor for the user of a ban (or other user list) entry, used to key ban status by UUID.
+ */
+@Mixin(StoredUserEntry.class)
+public interface StoredUserEntryAccessor<T> {
+
+    @Invoker("getUser")
+    T privateChests$getUser();
+}
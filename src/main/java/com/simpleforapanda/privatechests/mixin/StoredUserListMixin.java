@@ -0,0 +1,31 @@
+package com.simpleforapanda.privatechests.mixin;
+
+import com.simpleforapanda.privatechests.service.AccessDecisionCache;
+import com.simpleforapanda.privatechests.service.BanStatusCache;
+import net.minecraft.server.players.StoredUserList;
+import net.minecraft.server.players.UserBanList;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Mixin to refresh ban status and expire cached access decisions when the ban or operator lists change.
+ */
+@Mixin(StoredUserList.class)
+public abstract class StoredUserListMixin {
+
+    /**
+     * Every add and remove on a user list (bans, ops, whitelist) is followed by a save.
+     */
+    @Inject(
+        method = "save",
+        at = @At("HEAD")
+    )
+    private void onSave(CallbackInfo ci) {
+        if ((Object) this instanceof UserBanList bans) {
+            BanStatusCache.rebuild(bans);
+        }
+        AccessDecisionCache.invalidateAll();
+    }
+}
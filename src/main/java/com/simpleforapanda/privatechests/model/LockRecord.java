@@ -1,10 +1,12 @@
 package com.simpleforapanda.privatechests.model;
 
+import com.simpleforapanda.privatechests.PrivateChests;
+import com.simpleforapanda.privatechests.config.ModConfig;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.UUIDUtil;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
-import net.minecraft.nbt.NbtUtils;
-import net.minecraft.nbt.Tag;
+import net.minecraft.nbt.StringTag;
 
 import java.util.*;
 
@@ -13,26 +15,50 @@ import java.util.*;
  * Stores ownership, allowed users, and positions of the container and sign.
  */
 public class LockRecord {
+    // Version of the NBT layout written by toNbt(); unversioned records use the original layout
+    private static final int FORMAT_VERSION = 2;
+
     private final UUID ownerUuid;
     private final String ownerName;
     private final BlockPos signPos;
     private final Set<BlockPos> containerPositions;
+    private final long groupKey;
     private final Set<String> allowedUsers;
+    private final Map<String, UUID> resolvedUsers;  // Allowed user names resolved to UUIDs
     private final long createdAt;      // Timestamp in milliseconds
     private final long lastUpdatedAt;  // Timestamp in milliseconds
 
+    // Allowed users normalized for the Floodgate prefix they were built with
+    private NormalizedUsers normalizedUsers;
+
     public LockRecord(UUID ownerUuid, String ownerName, BlockPos signPos, Set<BlockPos> containerPositions, Set<String> allowedUsers) {
         this(ownerUuid, ownerName, signPos, containerPositions, allowedUsers, System.currentTimeMillis(), System.currentTimeMillis());
     }
 
     public LockRecord(UUID ownerUuid, String ownerName, BlockPos signPos, Set<BlockPos> containerPositions, Set<String> allowedUsers, long createdAt, long lastUpdatedAt) {
+        this(ownerUuid, ownerName, signPos, containerPositions, allowedUsers, Map.of(), createdAt, lastUpdatedAt);
+    }
+
+    public LockRecord(UUID ownerUuid, String ownerName, BlockPos signPos, Set<BlockPos> containerPositions, Set<String> allowedUsers, Map<String, UUID> resolvedUsers, long createdAt, long lastUpdatedAt) {
         this.ownerUuid = ownerUuid;
         this.ownerName = ownerName;
         this.signPos = signPos;
-        this.containerPositions = new HashSet<>(containerPositions);
+        this.containerPositions = Collections.unmodifiableSet(new HashSet<>(containerPositions));
+        this.groupKey = computeGroupKey(containerPositions);
         this.allowedUsers = new HashSet<>(allowedUsers);
+
+        // Only keep resolutions for names that are still on the sign
+        this.resolvedUsers = new HashMap<>();
+        for (Map.Entry<String, UUID> entry : resolvedUsers.entrySet()) {
+            if (this.allowedUsers.contains(entry.getKey())) {
+                this.resolvedUsers.put(entry.getKey(), entry.getValue());
+            }
+        }
         this.createdAt = createdAt;
         this.lastUpdatedAt = lastUpdatedAt;
+
+        ModConfig config = PrivateChests.getConfig();
+        this.normalizedUsers = NormalizedUsers.of(this, config != null ? config.getFloodgatePrefix() : null);
     }
 
     public UUID getOwnerUuid() {
@@ -48,13 +74,48 @@ public class LockRecord {
     }
 
     public Set<BlockPos> getContainerPositions() {
-        return Collections.unmodifiableSet(containerPositions);
+        return containerPositions;
+    }
+
+    /**
+     * Get the key identifying this record's container group: the lowest packed
+     * position ({@link BlockPos#asLong()}) among its containers. Container groups
+     * never overlap, so the key is unique within a dimension.
+     */
+    public long getGroupKey() {
+        return groupKey;
     }
 
     public Set<String> getAllowedUsers() {
         return Collections.unmodifiableSet(allowedUsers);
     }
 
+    /**
+     * Get the allowed user names that have been resolved to UUIDs, keyed by the name on the sign.
+     */
+    public Map<String, UUID> getResolvedUsers() {
+        return Collections.unmodifiableMap(resolvedUsers);
+    }
+
+    /**
+     * Get the allowed user names that have not been resolved to a UUID yet.
+     */
+    public Set<String> getUnresolvedUsers() {
+        Set<String> unresolved = new HashSet<>(allowedUsers);
+        unresolved.removeAll(resolvedUsers.keySet());
+        return unresolved;
+    }
+
+    /**
+     * Create a copy of this record with additional name to UUID resolutions.
+     * Timestamps are kept: resolving names does not change the sign.
+     */
+    public LockRecord withResolvedUsers(Map<String, UUID> resolved) {
+        Map<String, UUID> merged = new HashMap<>(resolvedUsers);
+        merged.putAll(resolved);
+        return new LockRecord(ownerUuid, ownerName, signPos, containerPositions, allowedUsers, merged, createdAt, lastUpdatedAt);
+    }
+
     public long getCreatedAt() {
         return createdAt;
     }
@@ -64,23 +125,51 @@ public class LockRecord {
     }
 
     /**
-     * Check if a username is in the allowed list (case-insensitive).
-     * Also handles Floodgate prefix stripping and whitespace normalization.
+     * Compute the group key for a set of container positions (see {@link #getGroupKey()}).
+     * An empty set yields {@link Long#MAX_VALUE}.
      */
-    public boolean isUserAllowed(String username, String floodgatePrefix) {
+    public static long computeGroupKey(Collection<BlockPos> positions) {
+        long key = Long.MAX_VALUE;
+        for (BlockPos pos : positions) {
+            key = Math.min(key, pos.asLong());
+        }
+        return key;
+    }
+
+    /**
+     * Check if a player is allowed by this lock.
+     * Names resolved to a UUID match that UUID, so they survive name changes.
+     * Names not resolved yet are compared by name (case-insensitive), with
+     * Floodgate prefix stripping and whitespace normalization.
+     * Floodgate players are compared by name against resolved names too: a name resolves
+     * through a Java account lookup, which may find an unrelated account of the same name.
+     */
+    public boolean isUserAllowed(UUID playerUuid, String username, String floodgatePrefix) {
+        // Rebuild the normalized sets if the Floodgate prefix changed since they were built
+        NormalizedUsers users = normalizedUsers;
+        if (!Objects.equals(users.floodgatePrefix(), floodgatePrefix)) {
+            users = NormalizedUsers.of(this, floodgatePrefix);
+            normalizedUsers = users;
+        }
+
+        if (playerUuid != null && users.uuids().contains(playerUuid)) {
+            return true;
+        }
+
         if (username == null) {
             return false;
         }
 
         String normalized = normalizeUsername(username, floodgatePrefix);
-
-        for (String allowed : allowedUsers) {
-            if (normalizeUsername(allowed, floodgatePrefix).equals(normalized)) {
-                return true;
-            }
+        if (users.unresolvedNames().contains(normalized)) {
+            return true;
         }
+        return isFloodgateUsername(username, floodgatePrefix) && users.resolvedNames().contains(normalized);
+    }
 
-        return false;
+    private static boolean isFloodgateUsername(String username, String floodgatePrefix) {
+        return floodgatePrefix != null && !floodgatePrefix.isEmpty()
+            && username.trim().toLowerCase().startsWith(floodgatePrefix.toLowerCase());
     }
 
     /**
@@ -90,7 +179,7 @@ public class LockRecord {
      * - Strip Floodgate prefix if present
      * - Treat spaces/underscores equivalently (replace _ with space)
      */
-    private String normalizeUsername(String username, String floodgatePrefix) {
+    private static String normalizeUsername(String username, String floodgatePrefix) {
         String normalized = username.trim().toLowerCase();
 
         // Strip Floodgate prefix if configured and present
@@ -105,35 +194,38 @@ public class LockRecord {
     }
 
     /**
-     * Serialize this lock record to NBT.
+     * Serialize this lock record to NBT using the compact layout:
+     * positions as packed longs, the owner as an int-array UUID and
+     * allowed users as a flat list of strings.
      */
     public CompoundTag toNbt() {
         CompoundTag tag = new CompoundTag();
 
-        tag.putLong("OwnerMost", ownerUuid.getMostSignificantBits());
-        tag.putLong("OwnerLeast", ownerUuid.getLeastSignificantBits());
+        tag.putInt("V", FORMAT_VERSION);
+        tag.putIntArray("Owner", UUIDUtil.uuidToIntArray(ownerUuid));
         tag.putString("OwnerName", ownerName);
-        tag.putInt("SignPosX", signPos.getX());
-        tag.putInt("SignPosY", signPos.getY());
-        tag.putInt("SignPosZ", signPos.getZ());
+        tag.putLong("Sign", signPos.asLong());
 
-        ListTag containerList = new ListTag();
+        long[] containers = new long[containerPositions.size()];
+        int index = 0;
         for (BlockPos pos : containerPositions) {
-            CompoundTag posTag = new CompoundTag();
-            posTag.putInt("X", pos.getX());
-            posTag.putInt("Y", pos.getY());
-            posTag.putInt("Z", pos.getZ());
-            containerList.add(posTag);
+            containers[index++] = pos.asLong();
         }
-        tag.put("Containers", containerList);
+        tag.putLongArray("Containers", containers);
 
         ListTag userList = new ListTag();
         for (String user : allowedUsers) {
-            CompoundTag userTag = new CompoundTag();
-            userTag.putString("Name", user);
-            userList.add(userTag);
+            userList.add(StringTag.valueOf(user));
+        }
+        tag.put("Users", userList);
+
+        if (!resolvedUsers.isEmpty()) {
+            CompoundTag userIds = new CompoundTag();
+            for (Map.Entry<String, UUID> entry : resolvedUsers.entrySet()) {
+                userIds.putIntArray(entry.getKey(), UUIDUtil.uuidToIntArray(entry.getValue()));
+            }
+            tag.put("UserIds", userIds);
         }
-        tag.put("AllowedUsers", userList);
 
         tag.putLong("CreatedAt", createdAt);
         tag.putLong("LastUpdatedAt", lastUpdatedAt);
@@ -143,8 +235,55 @@ public class LockRecord {
 
     /**
      * Deserialize a lock record from NBT.
+     * Records without a version use the original layout and are converted on read;
+     * they are written back in the compact layout at the next save.
      */
     public static LockRecord fromNbt(CompoundTag tag) {
+        if (tag.getInt("V").orElse(1) < FORMAT_VERSION) {
+            return fromLegacyNbt(tag);
+        }
+
+        UUID ownerUuid = tag.getIntArray("Owner")
+            .filter(ints -> ints.length == 4)
+            .map(UUIDUtil::uuidFromIntArray)
+            .orElse(new UUID(0L, 0L));
+        String ownerName = tag.getString("OwnerName").orElse("Unknown");
+        BlockPos signPos = BlockPos.of(tag.getLong("Sign").orElse(0L));
+
+        Set<BlockPos> containerPositions = new HashSet<>();
+        tag.getLongArray("Containers").ifPresent(containers -> {
+            for (long packed : containers) {
+                containerPositions.add(BlockPos.of(packed));
+            }
+        });
+
+        Set<String> allowedUsers = new HashSet<>();
+        tag.getList("Users").ifPresent(userList -> {
+            for (int i = 0; i < userList.size(); i++) {
+                userList.getString(i).ifPresent(allowedUsers::add);
+            }
+        });
+
+        Map<String, UUID> resolvedUsers = new HashMap<>();
+        tag.getCompound("UserIds").ifPresent(userIds -> {
+            for (String name : userIds.keySet()) {
+                userIds.getIntArray(name)
+                    .filter(ints -> ints.length == 4)
+                    .ifPresent(ints -> resolvedUsers.put(name, UUIDUtil.uuidFromIntArray(ints)));
+            }
+        });
+
+        long createdAt = tag.getLong("CreatedAt").orElse(0L);
+        long lastUpdatedAt = tag.getLong("LastUpdatedAt").orElse(0L);
+
+        return new LockRecord(ownerUuid, ownerName, signPos, containerPositions, allowedUsers, resolvedUsers, createdAt, lastUpdatedAt);
+    }
+
+    /**
+     * Deserialize a lock record written in the original layout
+     * (one compound per container position and per allowed user).
+     */
+    private static LockRecord fromLegacyNbt(CompoundTag tag) {
         UUID ownerUuid = new UUID(
             tag.getLong("OwnerMost").orElse(0L),
             tag.getLong("OwnerLeast").orElse(0L)
@@ -185,6 +324,26 @@ public class LockRecord {
         return new LockRecord(ownerUuid, ownerName, signPos, containerPositions, allowedUsers, createdAt, lastUpdatedAt);
     }
 
+    /**
+     * Allowed users prepared for access checks: resolved UUIDs, plus the unresolved and
+     * resolved names normalized once, together with the Floodgate prefix used to normalize them.
+     */
+    private record NormalizedUsers(String floodgatePrefix, Set<UUID> uuids, Set<String> unresolvedNames, Set<String> resolvedNames) {
+        static NormalizedUsers of(LockRecord record, String floodgatePrefix) {
+            Set<String> unresolvedNames = new HashSet<>();
+            Set<String> resolvedNames = new HashSet<>();
+            for (String allowed : record.allowedUsers) {
+                String normalized = normalizeUsername(allowed, floodgatePrefix);
+                if (record.resolvedUsers.containsKey(allowed)) {
+                    resolvedNames.add(normalized);
+                } else {
+                    unresolvedNames.add(normalized);
+                }
+            }
+            return new NormalizedUsers(floodgatePrefix, new HashSet<>(record.resolvedUsers.values()), unresolvedNames, resolvedNames);
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,79 @@
+package com.simpleforapanda.privatechests.service;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers recent access decisions per player, so repeatedly opening the same
+ * chests skips the full access check.
+ *
+ * <p>Each decision is stamped with the lock's epoch (see {@code LockState.getLockEpoch})
+ * and with a global epoch. Any change to the lock gives it a new epoch; changes that can
+ * affect every decision (config, bans, operators) bump the global epoch. A decision is only
+ * reused while both still match.</p>
+ *
+ * <p>Lookups happen on the server thread; the global epoch may be bumped from anywhere.</p>
+ */
+public class AccessDecisionCache {
+    // Decisions kept per player; the least recently used one is dropped beyond this
+    private static final int MAX_ENTRIES_PER_PLAYER = 256;
+
+    private static final Map<UUID, Long2ObjectLinkedOpenHashMap<Decision>> DECISIONS = new HashMap<>();
+    private static final AtomicLong GLOBAL_EPOCH = new AtomicLong();
+
+    /**
+     * Get the cached decision of a player for a lock, or null if there is none
+     * or it was made before the lock or the global state last changed.
+     */
+    public static ProtectionEngine.Verdict get(UUID playerUuid, long groupKey, long lockEpoch) {
+        Long2ObjectLinkedOpenHashMap<Decision> decisions = DECISIONS.get(playerUuid);
+        if (decisions == null) {
+            return null;
+        }
+
+        Decision decision = decisions.getAndMoveToLast(groupKey);
+        if (decision == null || decision.lockEpoch() != lockEpoch || decision.globalEpoch() != GLOBAL_EPOCH.get()) {
+            return null;
+        }
+        return decision.verdict();
+    }
+
+    /**
+     * Remember the decision of a player for a lock at its current epoch.
+     */
+    public static void put(UUID playerUuid, long groupKey, long lockEpoch, ProtectionEngine.Verdict verdict) {
+        Long2ObjectLinkedOpenHashMap<Decision> decisions = DECISIONS.computeIfAbsent(playerUuid, key -> new Long2ObjectLinkedOpenHashMap<>());
+        decisions.putAndMoveToLast(groupKey, new Decision(lockEpoch, GLOBAL_EPOCH.get(), verdict));
+        if (decisions.size() > MAX_ENTRIES_PER_PLAYER) {
+            decisions.removeFirst();
+        }
+    }
+
+    /**
+     * Get the global epoch, which changes whenever config, bans or operators change.
+     */
+    public static long getGlobalEpoch() {
+        return GLOBAL_EPOCH.get();
+    }
+
+    /**
+     * Expire every cached decision (config, ban list or operator list changed).
+     */
+    public static void invalidateAll() {
+        GLOBAL_EPOCH.incrementAndGet();
+    }
+
+    /**
+     * Drop the decisions of a player who left; their name may change before they return.
+     */
+    public static void forgetPlayer(UUID playerUuid) {
+        DECISIONS.remove(playerUuid);
+    }
+
+    private record Decision(long lockEpoch, long globalEpoch, ProtectionEngine.Verdict verdict) {
+    }
+}
@@ -1,17 +1,11 @@
 package com.simpleforapanda.privatechests.service;
 
-import com.simpleforapanda.privatechests.PrivateChests;
+import com.simpleforapanda.privatechests.duck.DormantHopper;
 import com.simpleforapanda.privatechests.model.LockRecord;
 import com.simpleforapanda.privatechests.state.LockState;
-import com.simpleforapanda.privatechests.util.ContainerUtils;
 import net.minecraft.core.BlockPos;
-import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
-import net.minecraft.server.players.NameAndId;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.state.BlockState;
-
-import java.util.Optional;
 
 /**
  * Service for checking if automation should be blocked for a container.
@@ -22,44 +16,62 @@ public class AutomationBlockService {
      * Check if automation (hoppers, etc.) should be blocked for a position.
      */
     public static boolean isAutomationBlocked(Level level, BlockPos pos) {
+        return isAutomationBlocked(level, pos.asLong());
+    }
+
+    /**
+     * Check if automation should be blocked for a packed position (see {@link BlockPos#asLong()}).
+     * The lock index is probed first, so unlocked targets never touch the world.
+     */
+    public static boolean isAutomationBlocked(Level level, long packedPos) {
         if (!(level instanceof ServerLevel serverLevel)) {
             return false;
         }
 
-        BlockState state = level.getBlockState(pos);
+        return ProtectionEngine.findProtectingLock(serverLevel, packedPos, ProtectionEngine.Action.AUTOMATION) != null;
+    }
 
-        // Check if this is a lockable container
-        if (!ContainerUtils.isLockableContainer(state)) {
+    /**
+     * Check if automation should be blocked for one side of a hopper.
+     * A side that was blocked stays dormant, skipping the check, until the lock on its
+     * target changes, the target itself changes (e.g. the hopper was turned) or
+     * config, bans or operators change.
+     *
+     * @param extracting True for the side pulling from above, false for the side inserting
+     */
+    public static boolean isAutomationBlocked(Level level, long packedPos, DormantHopper hopper, boolean extracting) {
+        if (!(level instanceof ServerLevel serverLevel)) {
             return false;
         }
 
-        MinecraftServer server = serverLevel.getServer();
-        LockState lockState = LockState.get(server);
+        LockState lockState = LockState.get(serverLevel);
 
-        // Check if this container is locked
-        Optional<LockRecord> lockOpt = lockState.getLock(pos);
-        if (lockOpt.isEmpty()) {
-            return false; // Not locked, allow automation
+        DormantHopper.Dormancy dormancy = hopper.privateChests$getDormancy(extracting);
+        if (dormancy != null) {
+            if (isStillDormant(lockState, dormancy, packedPos)) {
+                return true;
+            }
+            hopper.privateChests$setDormancy(extracting, null);
         }
 
-        LockRecord lock = lockOpt.get();
-
-        // Check if owner is banned
-        return !isOwnerBanned(server, lock); // Allow automation if owner is banned (configurable)
+        // Reuse the store resolved for the dormancy check: one lookup per transfer, then the chunk probe
+        LockRecord lock = ProtectionEngine.findProtectingLock(lockState, serverLevel, packedPos, ProtectionEngine.Action.AUTOMATION);
+        if (lock == null) {
+            return false;
+        }
 
-        // Container is locked, block automation
+        // Blocked: stay dormant until the lock or global state changes
+        hopper.privateChests$setDormancy(extracting,
+            new DormantHopper.Dormancy(packedPos, lockState.getLockEpoch(lock), AccessDecisionCache.getGlobalEpoch()));
+        return true;
     }
 
-    /**
-     * Check if the owner of a lock is banned and protection should be disabled.
-     */
-    private static boolean isOwnerBanned(MinecraftServer server, LockRecord lock) {
-        var player = server.getPlayerList().getPlayer(lock.getOwnerUuid());
-        if (player != null) {
-            boolean isBanned = server.getPlayerList().getBans().isBanned(new NameAndId(player.getGameProfile()));
-            return isBanned && PrivateChests.getConfig().isDisableProtectionIfOwnerBanned();
+    private static boolean isStillDormant(LockState lockState, DormantHopper.Dormancy dormancy, long packedPos) {
+        if (dormancy.targetPos() != packedPos || dormancy.globalEpoch() != AccessDecisionCache.getGlobalEpoch()) {
+            return false;
         }
 
-        return false;
+        LockRecord lock = lockState.findLock(packedPos);
+        return lock != null && lockState.getLockEpoch(lock) == dormancy.lockEpoch();
     }
 }
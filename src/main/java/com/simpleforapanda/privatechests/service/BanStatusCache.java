@@ -0,0 +1,56 @@
+package com.simpleforapanda.privatechests.service;
+
+import com.simpleforapanda.privatechests.PrivateChests;
+import com.simpleforapanda.privatechests.mixin.StoredUserEntryAccessor;
+import com.simpleforapanda.privatechests.model.LockRecord;
+import net.minecraft.server.players.NameAndId;
+import net.minecraft.server.players.UserBanList;
+import net.minecraft.server.players.UserBanListEntry;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Ban status of players by UUID, online or not.
+ *
+ * <p>Filled from the server's ban list when the server starts and rebuilt whenever the
+ * ban list is saved, which vanilla does after every ban and pardon.</p>
+ */
+public class BanStatusCache {
+    // Banned UUIDs mapped to when their ban expires (Long.MAX_VALUE for permanent bans)
+    private static volatile Map<UUID, Long> bannedUntil = Map.of();
+
+    /**
+     * Rebuild the cache from a ban list.
+     */
+    public static void rebuild(UserBanList bans) {
+        Map<UUID, Long> banned = new HashMap<>();
+        for (UserBanListEntry entry : bans.getEntries()) {
+            @SuppressWarnings("unchecked")
+            NameAndId user = ((StoredUserEntryAccessor<NameAndId>) entry).privateChests$getUser();
+            if (user != null) {
+                Date expires = entry.getExpires();
+                banned.put(user.id(), expires != null ? expires.getTime() : Long.MAX_VALUE);
+            }
+        }
+        bannedUntil = banned;
+        PrivateChests.LOGGER.debug("Ban status cache rebuilt with {} entries", banned.size());
+    }
+
+    /**
+     * Check if a player is banned.
+     */
+    public static boolean isBanned(UUID playerUuid) {
+        Long until = bannedUntil.get(playerUuid);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    /**
+     * Check if a lock's protection is disabled because its owner is banned (configurable).
+     */
+    public static boolean isOwnerBanned(LockRecord lock) {
+        return PrivateChests.getConfig().isDisableProtectionIfOwnerBanned() && isBanned(lock.getOwnerUuid());
+    }
+}
@@ -0,0 +1,332 @@
+package com.simpleforapanda.privatechests.service;
+
+import com.simpleforapanda.privatechests.PrivateChests;
+import com.simpleforapanda.privatechests.model.LockRecord;
+import com.simpleforapanda.privatechests.state.LockState;
+import com.simpleforapanda.privatechests.util.ContainerUtils;
+import com.simpleforapanda.privatechests.util.SignUtils;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.permissions.Permissions;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.ChestBlock;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.List;
+
+/**
+ * Decides whether an action on a block may go ahead, for every protection hook.
+ *
+ * <p>Each check resolves the lock once (container index, container group or sign index,
+ * depending on the action and block) and then applies the rules in one place:
+ * locks of banned owners aren't enforced, world actions are always stopped by a lock,
+ * and player actions are allowed for the owner and admins (plus allowed users for opening).</p>
+ */
+public class ProtectionEngine {
+
+    /**
+     * What is being done to the block.
+     */
+    public enum Action {
+        /** A player opening a container. */
+        OPEN,
+        /** A player breaking a container or sign. */
+        BREAK,
+        /** Hoppers and other automation moving items in or out of a container. */
+        AUTOMATION,
+        /** An explosion destroying the block. */
+        EXPLOSION,
+        /** Fire burning the block. */
+        FIRE,
+        /** A player editing a sign, or placing one on a container. */
+        SIGN_EDIT,
+        /** A player placing a chest that could join a neighbouring chest. */
+        PLACE_ADJACENT
+
+    }
+
+    private static final Verdict ALLOW = new Verdict(true, null, null);
+
+    // Iterating Direction.Plane.HORIZONTAL would allocate an iterator
+    private static final Direction[] HORIZONTAL = {Direction.NORTH, Direction.EAST, Direction.SOUTH, Direction.WEST};
+
+    /**
+     * Find the lock that stops a world action (automation, explosion, fire) on the block at a
+     * packed position (see {@link BlockPos#asLong()}), or null if the action may go ahead.
+     *
+     * <p>This is the hot path: it doesn't allocate unless the position is a locked container
+     * or a lock's sign, and even then only the first time in a tick. The lock index is probed
+     * before the world, so blocks without a lock never have their state read.</p>
+     */
+    public static LockRecord findProtectingLock(ServerLevel level, long packedPos, Action action) {
+        return findProtectingLock(LockState.get(level), level, packedPos, action);
+    }
+
+    /**
+     * {@link #findProtectingLock(ServerLevel, long, Action)} against an already resolved store,
+     * for callers that need the store themselves.
+     */
+    static LockRecord findProtectingLock(LockState lockState, ServerLevel level, long packedPos, Action action) {
+        // Most blocks are in chunks without any locks, and are neither a locked container nor a lock's sign
+        if (!lockState.hasLocksInChunkOf(packedPos) || !lockState.isTracked(packedPos)) {
+            return null;
+        }
+
+        return findEnforcedLock(level, lockState, packedPos, null, action);
+    }
+
+    /**
+     * Check whether a player may perform an action on a block.
+     *
+     * @param pos The block acted on; for {@link Action#PLACE_ADJACENT} where the chest would go
+     * @param state The block's current state; ignored for {@link Action#PLACE_ADJACENT}
+     */
+    public static Verdict check(ServerLevel level, BlockPos pos, BlockState state, Action action, ServerPlayer player) {
+        LockState lockState = LockState.get(level);
+        if (action == Action.PLACE_ADJACENT) {
+            return checkPlaceAdjacent(level, lockState, pos.asLong(), player);
+        }
+
+        LockRecord lock = findEnforcedLock(level, lockState, pos.asLong(), state, action);
+        if (lock == null) {
+            return ALLOW;
+        }
+
+        if (action == Action.OPEN) {
+            return decideOpen(player, lockState, lock);
+        }
+
+        return isOwnerOrAdmin(player, lock)
+            ? Verdict.allow(lock)
+            : Verdict.deny(lock, getDenyMessage(action, state));
+    }
+
+    /**
+     * Remove every position an explosion may not destroy from its block list.
+     * The store is resolved once. Vanilla lists positions ray by ray, so neighbours in the list
+     * mostly share a chunk: the last chunk found without locks is remembered, and its positions
+     * are kept without probing the index again.
+     * The list (vanilla's is array-backed) is compacted in place, without allocating.
+     */
+    public static void removeProtected(ServerLevel level, List<BlockPos> positions) {
+        LockState lockState = LockState.get(level);
+        if (lockState.getLockCount() == 0 || positions.isEmpty()) {
+            return;
+        }
+
+        boolean skipping = false;
+        long skippedChunk = 0L;
+        int kept = 0;
+        for (int i = 0, size = positions.size(); i < size; i++) {
+            BlockPos pos = positions.get(i);
+            long chunkKey = ChunkPos.asLong(pos);
+            if (!skipping || chunkKey != skippedChunk) {
+                skipping = !lockState.hasLocksInChunk(chunkKey);
+                skippedChunk = chunkKey;
+                if (!skipping && findProtectingLock(lockState, level, pos.asLong(), Action.EXPLOSION) != null) {
+                    continue;
+                }
+            }
+            positions.set(kept++, pos);
+        }
+
+        // Drop the leftover tail from the end, so nothing is shifted
+        for (int i = positions.size() - 1; i >= kept; i--) {
+            positions.remove(i);
+        }
+    }
+
+    /**
+     * Find the lock enforced on a block for an action, or null if there is none
+     * (no lock, a dangling one, or the owner is banned).
+     *
+     * @param state The block's state, or null to read it from the level
+     */
+    private static LockRecord findEnforcedLock(ServerLevel level, LockState lockState, long packedPos, BlockState state, Action action) {
+        // Skip chunks without locks before resolving anything. A container's lock may also be
+        // indexed in the chunk of its other half, which is worked out from the state alone.
+        if (state != null && !lockState.hasLocksInChunkOf(packedPos)
+            && !(ContainerUtils.isLockableContainer(state) && lockState.hasLocksInChunkOf(ContainerUtils.getPairedPosition(packedPos, state)))) {
+            return null;
+        }
+
+        LockState.Resolution resolution = resolve(level, lockState, packedPos, state);
+        LockRecord lock = resolution.lock();
+        if (lock == null) {
+            return null;
+        }
+
+        // Only containers are opened or automated; signs are protected from everything else
+        if ((action == Action.OPEN || action == Action.AUTOMATION) && !ContainerUtils.isLockableContainer(resolution.state())) {
+            return null;
+        }
+
+        // Opening is the one action that validates the lock first; a dangling lock is dropped
+        if (action == Action.OPEN && !validate(level, lockState, lock)) {
+            PrivateChests.LOGGER.info("Removing dangling lock at {} - sign no longer valid", BlockPos.of(packedPos));
+            lockState.removeLock(lock.getContainerPositions().iterator().next());
+            return null;
+        }
+
+        // Locks of banned owners aren't enforced (configurable)
+        if (BanStatusCache.isOwnerBanned(lock)) {
+            return null;
+        }
+
+        return lock;
+    }
+
+    /**
+     * Find the lock that applies to a block: containers through the container index,
+     * falling back to the other half of a double chest (which may be indexed when this half
+     * isn't yet), signs through the sign index. Repeated lookups of a position within one tick
+     * are answered from the store's resolutions (see {@link LockState#getResolution}).
+     *
+     * @param state The block's state, or null to read it from the level
+     */
+    private static LockState.Resolution resolve(ServerLevel level, LockState lockState, long packedPos, BlockState state) {
+        LockState.Resolution resolution = lockState.getResolution(packedPos);
+        if (resolution != null) {
+            return resolution;
+        }
+
+        if (state == null) {
+            state = level.getBlockState(BlockPos.of(packedPos));
+        }
+
+        LockRecord lock = null;
+        if (ContainerUtils.isLockableContainer(state)) {
+            lock = lockState.findLock(packedPos);
+            long pairedPos = ContainerUtils.getPairedPosition(packedPos, state);
+            if (lock == null && pairedPos != packedPos) {
+                // Only adopt the other half's lock if it really is the other half
+                LockRecord pairedLock = lockState.findLock(pairedPos);
+                if (pairedLock != null && ContainerUtils.getContainerGroup(level, BlockPos.of(packedPos)).contains(BlockPos.of(pairedPos))) {
+                    lock = pairedLock;
+                }
+            }
+        } else if (SignUtils.isWallSign(state)) {
+            lock = lockState.findLockBySign(packedPos);
+        }
+
+        resolution = new LockState.Resolution(state, lock);
+        lockState.putResolution(packedPos, resolution);
+        return resolution;
+    }
+
+    /**
+     * Check a lock is still backed by a valid private sign. Locks verified since they last
+     * changed (on chunk load, by the sweeper or an earlier open) are trusted.
+     */
+    private static boolean validate(ServerLevel level, LockState lockState, LockRecord lock) {
+        if (lockState.isVerified(lock)) {
+            return true;
+        }
+        if (!SignUtils.isValidPrivateSign(level, lock.getSignPos(), lock.getContainerPositions())) {
+            return false;
+        }
+        lockState.markVerified(lock);
+        return true;
+    }
+
+    /**
+     * Decide whether a player may open a container protected by a valid lock.
+     */
+    private static Verdict decideOpen(ServerPlayer player, LockState lockState, LockRecord lock) {
+        long lockEpoch = lockState.getLockEpoch(lock);
+
+        // Reuse the earlier decision if neither the lock nor global state changed since
+        Verdict cached = AccessDecisionCache.get(player.getUUID(), lock.getGroupKey(), lockEpoch);
+        if (cached != null) {
+            return cached;
+        }
+
+        Verdict verdict;
+        if (isOwnerOrAdmin(player, lock)
+            || lock.isUserAllowed(player.getUUID(), player.getName().getString(), PrivateChests.getConfig().getFloodgatePrefix())) {
+            verdict = Verdict.allow(lock);
+        } else {
+            verdict = Verdict.deny(lock, "Cannot open " + lock.getOwnerName() + "'s private chest. Permission denied.");
+        }
+
+        AccessDecisionCache.put(player.getUUID(), lock.getGroupKey(), lockEpoch, verdict);
+        return verdict;
+    }
+
+    /**
+     * Check the chests next to where a chest would be placed. Only the owner and admins
+     * may extend a locked chest; the verdict carries the lock that would be extended.
+     */
+    private static Verdict checkPlaceAdjacent(ServerLevel level, LockState lockState, long placementPos, ServerPlayer player) {
+        LockRecord extended = null;
+        for (Direction direction : HORIZONTAL) {
+            long adjacentPos = BlockPos.offset(placementPos, direction);
+            if (!lockState.hasLocksInChunkOf(adjacentPos)) {
+                continue;
+            }
+
+            LockState.Resolution resolution = resolve(level, lockState, adjacentPos, null);
+            if (!(resolution.state().getBlock() instanceof ChestBlock)) {
+                continue;
+            }
+
+            LockRecord lock = resolution.lock();
+            if (lock == null || BanStatusCache.isOwnerBanned(lock)) {
+                continue;
+            }
+
+            if (!isOwnerOrAdmin(player, lock)) {
+                return Verdict.deny(lock, getDenyMessage(Action.PLACE_ADJACENT, null));
+            }
+            if (extended == null) {
+                extended = lock;
+            }
+        }
+
+        return extended == null ? ALLOW : Verdict.allow(extended);
+    }
+
+    private static String getDenyMessage(Action action, BlockState state) {
+        boolean sign = state != null && SignUtils.isWallSign(state);
+        return switch (action) {
+            case BREAK -> sign ? "You cannot break someone else's [private] sign." : "Cannot break someone else's locked container.";
+            case SIGN_EDIT -> sign ? "You cannot edit someone else's [private] sign." : "You cannot place a sign on someone else's locked container.";
+            case PLACE_ADJACENT -> "You cannot place a chest next to someone else's locked chest.";
+            default -> null;
+        };
+    }
+
+    /**
+     * Check if a player owns a lock or is an admin.
+     */
+    public static boolean isOwnerOrAdmin(ServerPlayer player, LockRecord lock) {
+        return player.getUUID().equals(lock.getOwnerUuid()) || isAdmin(player);
+    }
+
+    /**
+     * Check if a player is an admin (has bypass permission).
+     */
+    public static boolean isAdmin(ServerPlayer player) {
+        // Check if player is an operator with sufficient permission level
+        return player.permissions().hasPermission(Permissions.COMMANDS_MODERATOR);
+    }
+
+    /**
+     * Result of a protection check.
+     *
+     * @param allowed Whether the action may go ahead
+     * @param lock The enforced lock that was found, or null if the block isn't protected
+     * @param message Message for the player when denied; null for world actions
+     */
+    public record Verdict(boolean allowed, LockRecord lock, String message) {
+        public static Verdict allow(LockRecord lock) {
+            return new Verdict(true, lock, null);
+        }
+
+        public static Verdict deny(LockRecord lock, String message) {
+            return new Verdict(false, lock, message);
+        }
+    }
+}
@@ -37,7 +37,6 @@ public class SignEditService {
                                         boolean isFrontText) {
         ServerLevel serverLevel = player.level();
 
-        LockState lockState = LockState.get(serverLevel.getServer());
         BlockState signState = serverLevel.getBlockState(signPos);
 
         // Only process wall signs
@@ -52,8 +51,8 @@ public class SignEditService {
         }
 
         // Check if attached to a lockable container
-        Set<BlockPos> containerGroup = ContainerUtils.getContainerGroup(serverLevel, attachedPos.get());
-        if (containerGroup.isEmpty()) {
+        BlockState attachedState = serverLevel.getBlockState(attachedPos.get());
+        if (!ContainerUtils.isLockableContainer(attachedState)) {
             return true; // Not attached to a container
         }
 
@@ -63,20 +62,15 @@ public class SignEditService {
         boolean otherSideHasPrivate = SignUtils.containsPrivateMarker(signEntity, !isFrontText);
         boolean isPrivateSign = editedSideHasPrivate || otherSideHasPrivate;
 
-        // Check if ANY part of the container group has an existing lock
-        // This prevents the double chest exploit where Player B extends Player A's locked chest
-        Optional<LockRecord> existingLock = Optional.empty();
-        for (BlockPos pos : containerGroup) {
-            existingLock = lockState.getLock(pos);
-            if (existingLock.isPresent()) {
-                break;
-            }
-        }
+        // The lock enforced on the container, including one held by the other half of a double chest.
+        // The verdict is whether the player is its owner or an admin.
+        LockState lockState = LockState.get(serverLevel);
+        ProtectionEngine.Verdict verdict = ProtectionEngine.check(serverLevel, attachedPos.get(), attachedState, ProtectionEngine.Action.SIGN_EDIT, player);
 
-        if (existingLock.isPresent()) {
-            return handleExistingLock(player, signPos, signEntity, newLines, isFrontText, containerGroup, existingLock.get(), lockState, isPrivateSign);
+        if (verdict.lock() != null) {
+            return handleExistingLock(player, signPos, signEntity, newLines, isFrontText, verdict.lock(), verdict.allowed(), lockState, isPrivateSign);
         } else {
-            return handleNewLock(player, signPos, signEntity, newLines, isFrontText, containerGroup, lockState, isPrivateSign);
+            return handleNewLock(player, signPos, signEntity, newLines, isFrontText, attachedPos.get(), lockState, isPrivateSign);
         }
     }
 
@@ -89,8 +83,8 @@ public class SignEditService {
         SignBlockEntity signEntity,
         java.util.List<net.minecraft.server.network.FilteredText> newLines,
         boolean isFrontText,
-        Set<BlockPos> containerGroup,
         LockRecord existingLock,
+        boolean isOwnerOrAdmin,
         LockState lockState,
         boolean isPrivateSign
     ) {
@@ -100,7 +94,7 @@ public class SignEditService {
         if (isTheLockSign) {
             // Editing the lock's private sign
             // Only owner or admin can edit
-            if (!player.getUUID().equals(existingLock.getOwnerUuid()) && !AccessControlService.isAdmin(player)) {
+            if (!isOwnerOrAdmin) {
                 player.sendSystemMessage(Component.literal(
                     "You cannot edit someone else's [private] sign."
                 ));
@@ -111,7 +105,7 @@ public class SignEditService {
             if (!isPrivateSign) {
                 PrivateChests.LOGGER.info("Player {} removed [private] from sign at {}, removing lock",
                     player.getName().getString(), signPos);
-                lockState.removeLock(containerGroup.iterator().next());
+                lockState.removeLock(existingLock.getContainerPositions().iterator().next());
                 player.sendSystemMessage(Component.literal("Lock removed from container."));
                 return true;
             }
@@ -131,12 +125,15 @@ public class SignEditService {
                     existingLock.getSignPos(),
                     existingLock.getContainerPositions(),
                     allowedUsers,
+                    existingLock.getResolvedUsers(),        // Keep UUIDs of names still listed
                     existingLock.getCreatedAt(),           // Preserve original creation time
                     System.currentTimeMillis()              // Update last modified time
                 );
 
-                lockState.removeLock(containerGroup.iterator().next());
-                lockState.addLock(updatedLock);
+                lockState.replaceLock(existingLock, updatedLock);
+
+                // Resolve newly added names to UUIDs in the background
+                UserResolutionService.resolveAsync(player.level(), updatedLock);
 
                 PrivateChests.LOGGER.info("Player {} updated allowed users on lock at {}",
                     player.getName().getString(), signPos);
@@ -170,7 +167,7 @@ public class SignEditService {
         SignBlockEntity signEntity,
         java.util.List<net.minecraft.server.network.FilteredText> newLines,
         boolean isFrontText,
-        Set<BlockPos> containerGroup,
+        BlockPos containerPos,
         LockState lockState,
         boolean isPrivateSign
     ) {
@@ -178,6 +175,17 @@ public class SignEditService {
             return true; // Not adding [private], allow edit
         }
 
+        // A banned owner's lock isn't enforced, but it still holds the containers
+        Set<BlockPos> containerGroup = ContainerUtils.getContainerGroup(player.level(), containerPos);
+        for (BlockPos pos : containerGroup) {
+            if (lockState.isLocked(pos)) {
+                player.sendSystemMessage(Component.literal(
+                    "This container is already protected by another [private] sign."
+                ));
+                return false;
+            }
+        }
+
         // Extract allowed users from BOTH sides of the sign
         Set<String> allowedUsers = extractUsersFromBothSides(signEntity, newLines, isFrontText);
 
@@ -195,6 +203,9 @@ public class SignEditService {
 
         lockState.addLock(newLock);
 
+        // Resolve the listed names to UUIDs in the background
+        UserResolutionService.resolveAsync(player.level(), newLock);
+
         PrivateChests.LOGGER.info("Player {} created new lock at {} for container group with {} blocks",
             player.getName().getString(), signPos, containerGroup.size());
 
@@ -224,24 +235,8 @@ public class SignEditService {
         // Extract from the edited side (new text)
         users.addAll(SignUtils.extractAllowedUsers(editedSideText));
 
-        // Extract from the OTHER side (existing text from sign entity)
-        boolean otherSideIsFront = !isEditingFront;
-        boolean otherSideHasPrivate = SignUtils.containsPrivateMarker(signEntity, otherSideIsFront);
-        int startLine = otherSideHasPrivate ? 1 : 0;
-
-        for (int i = startLine; i < 4; i++) {
-            String line = signEntity.getText(otherSideIsFront).getMessage(i, false).getString().trim();
-            if (!line.isEmpty()) {
-                // Use the same comma-separation logic
-                String[] parts = line.split(",");
-                for (String part : parts) {
-                    String username = part.trim();
-                    if (!username.isEmpty()) {
-                        users.add(username);
-                    }
-                }
-            }
-        }
+        // Extract from the OTHER side (existing text, already parsed on the sign entity)
+        users.addAll(SignUtils.getParsedSign(signEntity).users(!isEditingFront));
 
         return users;
     }
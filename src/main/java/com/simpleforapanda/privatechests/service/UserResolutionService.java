@@ -0,0 +1,102 @@
+package com.simpleforapanda.privatechests.service;
+
+import com.simpleforapanda.privatechests.PrivateChests;
+import com.simpleforapanda.privatechests.model.LockRecord;
+import com.simpleforapanda.privatechests.state.LockState;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.players.NameAndId;
+import net.minecraft.world.level.Level;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * Service for resolving the user names on private signs to UUIDs.
+ *
+ * <p>Lookups go through the server's name to UUID cache, which may have to ask the
+ * profile service for names it has not seen, so they run on a background thread.
+ * Results are applied to the lock on the server thread.</p>
+ */
+public class UserResolutionService {
+    // Names a Java account can have; anything else (e.g. Floodgate-prefixed names) can't be looked up
+    private static final Pattern JAVA_USERNAME = Pattern.compile("[A-Za-z0-9_]{1,16}");
+
+    private static final ExecutorService RESOLVER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Private Chests User Resolver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Resolve the allowed users of a lock that have no UUID yet, in the background.
+     * Never blocks the calling thread.
+     */
+    public static void resolveAsync(ServerLevel level, LockRecord lock) {
+        Set<String> names = lock.getUnresolvedUsers();
+        names.removeIf(name -> !JAVA_USERNAME.matcher(name).matches());
+        if (names.isEmpty()) {
+            return;
+        }
+
+        MinecraftServer server = level.getServer();
+        ResourceKey<Level> dimension = level.dimension();
+        long groupKey = lock.getGroupKey();
+
+        CompletableFuture.supplyAsync(() -> lookup(server, names), RESOLVER)
+            .thenAcceptAsync(resolved -> apply(server, dimension, groupKey, resolved), server)
+            .exceptionally(e -> {
+                PrivateChests.LOGGER.warn("Failed to resolve allowed users {} for lock at {}", names, lock.getSignPos(), e);
+                return null;
+            });
+    }
+
+    private static Map<String, UUID> lookup(MinecraftServer server, Set<String> names) {
+        Map<String, UUID> resolved = new HashMap<>();
+        for (String name : names) {
+            Optional<NameAndId> profile = server.services().nameToIdCache().get(name);
+            profile.ifPresent(nameAndId -> resolved.put(name, nameAndId.id()));
+        }
+        return resolved;
+    }
+
+    /**
+     * Store resolved UUIDs on the lock, if it still exists and still lists those names.
+     */
+    private static void apply(MinecraftServer server, ResourceKey<Level> dimension, long groupKey, Map<String, UUID> resolved) {
+        if (resolved.isEmpty()) {
+            return;
+        }
+
+        ServerLevel level = server.getLevel(dimension);
+        if (level == null) {
+            return;
+        }
+
+        LockState lockState = LockState.get(level);
+        LockRecord current = lockState.getLockByGroupKey(groupKey);
+        if (current == null) {
+            return; // Lock was removed while resolving
+        }
+
+        // The sign may have been edited meanwhile; only keep names it still lists
+        Map<String, UUID> applicable = new HashMap<>();
+        for (Map.Entry<String, UUID> entry : resolved.entrySet()) {
+            if (current.getAllowedUsers().contains(entry.getKey()) && !current.getResolvedUsers().containsKey(entry.getKey())) {
+                applicable.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (!applicable.isEmpty()) {
+            lockState.replaceLock(current, current.withResolvedUsers(applicable));
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.simpleforapanda.privatechests.state;
+
+import com.simpleforapanda.privatechests.model.LockRecord;
+import net.minecraft.nbt.CollectToTag;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.IntTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.LongTag;
+import net.minecraft.nbt.StreamTagVisitor;
+import net.minecraft.nbt.TagType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a lock snapshot into a LockState without materializing the whole tag tree.
+ *
+ * <p>Only one lock compound is collected at a time; as soon as it is complete it is
+ * decoded into a LockRecord and handed to the state's indexes. Everything outside
+ * {@code data.Locks} / {@code data.LegacyLocks} except the format and journal
+ * sequence is skipped unread.</p>
+ *
+ * <p>Expected layout: {@code {data: {Format, JournalSeq, Locks: [...], LegacyLocks: [...]}, DataVersion}}</p>
+ */
+class LockSnapshotReader implements StreamTagVisitor {
+    private static final int ROOT = 1;
+    private static final int DATA = 2;
+    private static final int LOCK_LIST = 3;
+
+    private final LockState state;
+
+    // Nesting of the snapshot structure we are walking (0 = outside the root)
+    private int depth;
+    private String currentKey;
+    private boolean inLegacyList;
+
+    // Collector for the lock compound being read, and how deep inside it we are
+    private CollectToTag recordCollector;
+    private int recordDepth;
+
+    // The store format decides how records are indexed; hold records back until it is known
+    private int format = -1;
+    private long journalSeq;
+    private final List<LockRecord> heldLocks = new ArrayList<>();
+    private final List<LockRecord> heldLegacyLocks = new ArrayList<>();
+
+    LockSnapshotReader(LockState state) {
+        this.state = state;
+    }
+
+    /**
+     * Hand over any records read before the format was known and return the journal sequence.
+     */
+    long finish() {
+        if (format < 0) {
+            acceptFormat(0);
+        }
+        return journalSeq;
+    }
+
+    private void acceptFormat(int format) {
+        this.format = format;
+        state.acceptLoadedFormat(format);
+
+        for (LockRecord record : heldLocks) {
+            state.acceptLoadedLock(record, format, false);
+        }
+        for (LockRecord record : heldLegacyLocks) {
+            state.acceptLoadedLock(record, format, true);
+        }
+        heldLocks.clear();
+        heldLegacyLocks.clear();
+    }
+
+    private void acceptRecord(CompoundTag lockTag) {
+        LockRecord record = LockRecord.fromNbt(lockTag);
+        if (format >= 0) {
+            state.acceptLoadedLock(record, format, inLegacyList);
+        } else if (inLegacyList) {
+            heldLegacyLocks.add(record);
+        } else {
+            heldLocks.add(record);
+        }
+    }
+
+    private static boolean isContainer(TagType<?> type) {
+        return type == CompoundTag.TYPE || type == ListTag.TYPE;
+    }
+
+    @Override
+    public ValueResult visitEnd() {
+        return recordCollector != null ? recordCollector.visitEnd() : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(String value) {
+        return recordCollector != null ? recordCollector.visit(value) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(byte value) {
+        return recordCollector != null ? recordCollector.visit(value) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(short value) {
+        return recordCollector != null ? recordCollector.visit(value) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(int value) {
+        if (recordCollector != null) {
+            return recordCollector.visit(value);
+        }
+        if (depth == DATA && "Format".equals(currentKey)) {
+            acceptFormat(value);
+        }
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(long value) {
+        if (recordCollector != null) {
+            return recordCollector.visit(value);
+        }
+        if (depth == DATA && "JournalSeq".equals(currentKey)) {
+            journalSeq = value;
+        }
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(float value) {
+        return recordCollector != null ? recordCollector.visit(value) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(double value) {
+        return recordCollector != null ? recordCollector.visit(value) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(byte[] value) {
+        return recordCollector != null ? recordCollector.visit(value) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(int[] value) {
+        return recordCollector != null ? recordCollector.visit(value) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(long[] value) {
+        return recordCollector != null ? recordCollector.visit(value) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visitList(TagType<?> elementType, int size) {
+        return recordCollector != null ? recordCollector.visitList(elementType, size) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public EntryResult visitEntry(TagType<?> type) {
+        return recordCollector != null ? recordCollector.visitEntry(type) : EntryResult.ENTER;
+    }
+
+    @Override
+    public EntryResult visitEntry(TagType<?> type, String id) {
+        if (recordCollector != null) {
+            EntryResult result = recordCollector.visitEntry(type, id);
+            if (result == EntryResult.ENTER && isContainer(type)) {
+                recordDepth++;
+            }
+            return result;
+        }
+
+        currentKey = id;
+        if (depth == ROOT && "data".equals(id) && type == CompoundTag.TYPE) {
+            depth = DATA;
+            return EntryResult.ENTER;
+        }
+        if (depth == DATA) {
+            if (("Locks".equals(id) || "LegacyLocks".equals(id)) && type == ListTag.TYPE) {
+                depth = LOCK_LIST;
+                inLegacyList = "LegacyLocks".equals(id);
+                return EntryResult.ENTER;
+            }
+            if (("Format".equals(id) && type == IntTag.TYPE) || ("JournalSeq".equals(id) && type == LongTag.TYPE)) {
+                return EntryResult.ENTER;
+            }
+        }
+        return EntryResult.SKIP;
+    }
+
+    @Override
+    public EntryResult visitElement(TagType<?> type, int index) {
+        if (recordCollector != null) {
+            EntryResult result = recordCollector.visitElement(type, index);
+            if (result == EntryResult.ENTER && isContainer(type)) {
+                recordDepth++;
+            }
+            return result;
+        }
+
+        if (depth == LOCK_LIST && type == CompoundTag.TYPE) {
+            // Start collecting a single lock record
+            recordCollector = new CollectToTag();
+            recordCollector.visitRootEntry(CompoundTag.TYPE);
+            recordDepth = 0;
+            return EntryResult.ENTER;
+        }
+        return EntryResult.SKIP;
+    }
+
+    @Override
+    public ValueResult visitContainerEnd() {
+        if (recordCollector != null) {
+            ValueResult result = recordCollector.visitContainerEnd();
+            if (recordDepth > 0) {
+                recordDepth--;
+            } else {
+                // The lock compound itself ended: decode it and drop its tags
+                if (recordCollector.getResult() instanceof CompoundTag lockTag) {
+                    acceptRecord(lockTag);
+                }
+                recordCollector = null;
+            }
+            return result;
+        }
+
+        if (depth == LOCK_LIST) {
+            inLegacyList = false;
+            depth = DATA;
+        } else if (depth > 0) {
+            depth--;
+        }
+        currentKey = null;
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visitRootEntry(TagType<?> type) {
+        if (type == CompoundTag.TYPE) {
+            depth = ROOT;
+        }
+        return ValueResult.CONTINUE;
+    }
+}
@@ -1,165 +1,342 @@
 package com.simpleforapanda.privatechests.state;
 
 import com.simpleforapanda.privatechests.model.LockRecord;
-import com.mojang.serialization.Codec;
+import com.simpleforapanda.privatechests.util.SignUtils;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongArraySet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.core.BlockPos;
-import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
-import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.MinecraftServer;
-import net.minecraft.util.datafix.DataFixTypes;
-import net.minecraft.world.level.saveddata.SavedData;
-import net.minecraft.world.level.saveddata.SavedDataType;
-import net.minecraft.world.level.storage.DimensionDataStorage;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Manages all lock records for the server.
- * Persists lock data across server restarts.
+ * Manages the lock records for a single dimension.
+ * Each ServerLevel owns one LockState, stored in that dimension's data folder,
+ * so locks are indexed and saved per dimension.
+ *
+ * <p>Mutations are appended to a journal as they happen (see {@link LockStorage});
+ * the full snapshot is only rewritten when the journal is compacted.</p>
+ *
+ * <p>The indexes are only touched from the server thread.</p>
  */
-public class LockState extends SavedData {
-    private static final String FILE_NAME = "private_chests";
+public class LockState {
+    // Storage format version. Files without it predate per-dimension stores,
+    // version 1 still used the verbose per-record layout.
+    private static final int FORMAT_VERSION = 2;
 
-    // Map container positions to their lock records
-    private final Map<BlockPos, LockRecord> locksByPosition = new ConcurrentHashMap<>();
+    // One store per loaded dimension
+    private static final Map<ResourceKey<Level>, LockState> STATES = new ConcurrentHashMap<>();
 
-    // Map container group IDs to their lock records for efficient lookup
-    private final Map<String, LockRecord> locksByGroupId = new ConcurrentHashMap<>();
+    // The values of STATES, for the end of every tick, where iterating the map would allocate
+    private static LockState[] loadedStates = new LockState[0];
+
+    // Source of lock epochs. Shared by all dimensions so an epoch never matches a lock elsewhere
+    private static long nextEpoch;
+
+    // Map packed container positions (BlockPos.asLong) to their lock records
+    private final Long2ObjectOpenHashMap<LockRecord> locksByPosition = new Long2ObjectOpenHashMap<>();
+
+    // Map packed sign positions to the lock that sign creates
+    private final Long2ObjectOpenHashMap<LockRecord> locksBySign = new Long2ObjectOpenHashMap<>();
+
+    // Map packed chunk positions to the locks with a container or sign in that chunk
+    private final Long2ObjectOpenHashMap<List<LockRecord>> locksByChunk = new Long2ObjectOpenHashMap<>();
+
+    // Map owner UUIDs to the locks they own
+    private final Map<UUID, Set<LockRecord>> locksByOwner = new HashMap<>();
+
+    // Map container group keys (see LockRecord.getGroupKey) to their lock records
+    private final Long2ObjectOpenHashMap<LockRecord> locksByGroupKey = new Long2ObjectOpenHashMap<>();
+
+    // Map container group keys to the epoch stamped on the lock when it was last indexed
+    private final Long2LongOpenHashMap epochsByGroupKey = new Long2LongOpenHashMap();
+
+    // Map container group keys to the epoch at which the lock's sign was last found valid
+    private final Long2LongOpenHashMap verifiedEpochsByGroupKey = new Long2LongOpenHashMap();
+
+    // Locks from the old single-store file, not yet matched to a dimension.
+    // Keyed by the chunk of their sign, claimed when that chunk loads.
+    private final Map<Long, List<LockRecord>> pendingLegacyLocks = new HashMap<>();
+
+    // Journal and snapshot files for this dimension; null while loading so replay isn't re-journaled
+    private LockStorage storage;
+
+    // Walks this store a few locks per tick looking for dangling locks
+    private final LockSweeper sweeper = new LockSweeper(this);
+
+    // Set when a change can't be expressed as a journal entry and needs a fresh snapshot
+    private boolean compactionRequested;
+
+    // Packed positions resolved during the current tick (see ProtectionEngine).
+    // Dropped at the end of every tick and whenever a lock or a block near one changes.
+    private final Long2ObjectOpenHashMap<Resolution> resolutions = new Long2ObjectOpenHashMap<>();
 
     public LockState() {
-        super();
     }
 
     /**
-     * Codec for serializing/deserializing LockState using NBT.
-     * Delegates to our existing save/load methods.
+     * Get the LockState instance for a dimension, loading it on first use.
      */
-    private static final Codec<LockState> CODEC = new Codec<LockState>() {
-        @Override
-        public <T> com.mojang.serialization.DataResult<com.mojang.datafixers.util.Pair<LockState, T>> decode(
-                com.mojang.serialization.DynamicOps<T> ops, T input) {
-            if (input instanceof CompoundTag nbt) {
-                try {
-                    LockState state = load(nbt, null);
-                    return com.mojang.serialization.DataResult.success(
-                        com.mojang.datafixers.util.Pair.of(state, ops.empty())
-                    );
-                } catch (Exception e) {
-                    return com.mojang.serialization.DataResult.error(() -> "Failed to load LockState: " + e.getMessage());
-                }
-            }
-            return com.mojang.serialization.DataResult.error(() -> "Expected CompoundTag for LockState");
-        }
-
-        @Override
-        @SuppressWarnings("unchecked")
-        public <T> com.mojang.serialization.DataResult<T> encode(LockState input,
-                com.mojang.serialization.DynamicOps<T> ops, T prefix) {
-            try {
-                // Save to NBT using our existing method
-                CompoundTag nbt = input.save(new CompoundTag(), null);
-                // Return the NBT tag directly (works with NbtOps and JsonOps via conversion)
-                return com.mojang.serialization.DataResult.success((T) nbt);
-            } catch (Exception e) {
-                return com.mojang.serialization.DataResult.error(() -> "Failed to save LockState: " + e.getMessage());
-            }
+    public static LockState get(ServerLevel level) {
+        // Plain lookup first: called from every protection hook, and the loading lambda would allocate
+        LockState state = STATES.get(level.dimension());
+        if (state != null) {
+            return state;
         }
-    };
+        state = STATES.computeIfAbsent(level.dimension(), key -> LockStorage.load(level));
+        loadedStates = STATES.values().toArray(new LockState[0]);
+        return state;
+    }
 
-    private static final SavedDataType<LockState> TYPE = new SavedDataType<>(
-        FILE_NAME,
-        LockState::new,
-        CODEC,
-        null   // DataFixTypes
-    );
+    /**
+     * Compact and close the store of a dimension that is being unloaded.
+     */
+    public static void unload(ServerLevel level) {
+        LockState state = STATES.remove(level.dimension());
+        loadedStates = STATES.values().toArray(new LockState[0]);
+        if (state != null && state.storage != null) {
+            state.storage.close(state);
+        }
+    }
 
     /**
-     * Get the LockState instance for the server.
+     * Called after the server saves: fold long journals back into their snapshots.
      */
-    public static LockState get(MinecraftServer server) {
-        DimensionDataStorage storage = server.overworld().getDataStorage();
-        return storage.computeIfAbsent(TYPE);
+    public static void afterServerSave(MinecraftServer server) {
+        for (LockState state : STATES.values()) {
+            if (state.storage != null) {
+                state.storage.compactIfNeeded(state);
+            }
+        }
     }
 
     /**
-     * Load lock state from NBT.
+     * Called at the end of every server tick: forget this tick's position resolutions.
      */
-    public static LockState load(CompoundTag tag, HolderLookup.Provider provider) {
-        LockState state = new LockState();
+    public static void endTick(MinecraftServer server) {
+        for (LockState state : loadedStates) {
+            state.clearResolutions();
+        }
+    }
 
-        tag.getList("Locks").ifPresent(lockList -> {
-            for (int i = 0; i < lockList.size(); i++) {
-                lockList.getCompound(i).ifPresent(lockTag -> {
-                    LockRecord record = LockRecord.fromNbt(lockTag);
+    void attachStorage(LockStorage storage) {
+        this.storage = storage;
+    }
 
-                    // Add to position map for all container positions
-                    for (BlockPos pos : record.getContainerPositions()) {
-                        state.locksByPosition.put(pos, record);
-                    }
+    void requestCompaction() {
+        compactionRequested = true;
+    }
 
-                    // Add to group ID map
-                    String groupId = state.computeGroupId(record.getContainerPositions());
-                    state.locksByGroupId.put(groupId, record);
-                });
-            }
-        });
+    boolean isCompactionRequested() {
+        return compactionRequested;
+    }
 
-        return state;
+    void clearCompactionRequest() {
+        compactionRequested = false;
     }
 
     /**
-     * Save lock state to NBT.
+     * Called by the snapshot reader once the store format is known.
      */
-    public CompoundTag save(CompoundTag tag, HolderLookup.Provider provider) {
-        ListTag lockList = new ListTag();
+    void acceptLoadedFormat(int format) {
+        // Older layouts are converted on read; write them back in the current one
+        if (format < FORMAT_VERSION) {
+            requestCompaction();
+        }
+    }
 
-        // Save each unique lock record once (avoid duplicates from position map)
-        Set<LockRecord> savedRecords = new HashSet<>();
-        for (LockRecord record : locksByPosition.values()) {
-            if (savedRecords.add(record)) {
-                lockList.add(record.toNbt());
-            }
+    /**
+     * Called by the snapshot reader for each decoded lock record.
+     * Files written before per-dimension stores (format 0) hold locks from every dimension;
+     * those are parked until the chunk holding their sign loads in a level where the sign is valid.
+     */
+    void acceptLoadedLock(LockRecord record, int format, boolean fromLegacyList) {
+        if (format == 0 || fromLegacyList) {
+            addPendingLegacyLock(record);
+        } else {
+            indexLock(record);
         }
+    }
+
+    /**
+     * Take an immutable snapshot of the store for saving.
+     * Lock records are immutable, so copying the references is enough; this is the
+     * only part of a save that runs on the server thread.
+     */
+    Snapshot snapshot() {
+        List<LockRecord> legacyLocks = new ArrayList<>();
+        for (List<LockRecord> bucket : pendingLegacyLocks.values()) {
+            legacyLocks.addAll(bucket);
+        }
+        // One entry per group, so each record is saved once
+        return new Snapshot(List.copyOf(locksByGroupKey.values()), legacyLocks);
+    }
+
+    /**
+     * Get the number of locks in this dimension.
+     */
+    public int getLockCount() {
+        return locksByGroupKey.size();
+    }
+
+    /**
+     * Get the journal and snapshot storage of this dimension.
+     */
+    public LockStorage getStorage() {
+        return storage;
+    }
 
-        tag.put("Locks", lockList);
-        return tag;
+    /**
+     * Get the dangling-lock sweeper of this dimension.
+     */
+    public LockSweeper getSweeper() {
+        return sweeper;
+    }
+
+    /**
+     * Copy the group keys of all locks, for walking the store across ticks.
+     */
+    LongArrayList copyGroupKeys() {
+        return new LongArrayList(locksByGroupKey.keySet());
     }
 
     /**
      * Add a new lock record.
      */
     public void addLock(LockRecord record) {
+        indexLock(record);
+        if (storage != null) {
+            storage.append(LockStorage.addEntry(record));
+        }
+    }
+
+    /**
+     * Replace an existing lock record with an updated version of it.
+     */
+    public void replaceLock(LockRecord existing, LockRecord updated) {
+        BlockPos existingPos = existing.getContainerPositions().iterator().next();
+        unindexLock(existingPos);
+        indexLock(updated);
+        if (storage != null) {
+            storage.append(LockStorage.updateEntry(existingPos, updated));
+        }
+    }
+
+    private void indexLock(LockRecord record) {
+        clearResolutions();
+
         // Add to position map for all container positions
         for (BlockPos pos : record.getContainerPositions()) {
-            locksByPosition.put(pos, record);
+            locksByPosition.put(pos.asLong(), record);
         }
 
-        // Add to group ID map
-        String groupId = computeGroupId(record.getContainerPositions());
-        locksByGroupId.put(groupId, record);
+        // Add to sign map
+        locksBySign.put(record.getSignPos().asLong(), record);
+
+        // Add to the bucket of every chunk the lock touches
+        for (long chunkKey : getChunkKeys(record)) {
+            locksByChunk.computeIfAbsent(chunkKey, key -> new ArrayList<>(2)).add(record);
+        }
 
-        setDirty();
+        // Add to owner map
+        locksByOwner.computeIfAbsent(record.getOwnerUuid(), key -> new LinkedHashSet<>()).add(record);
+
+        // Add to group key map, with a fresh epoch so cached decisions about the group expire
+        locksByGroupKey.put(record.getGroupKey(), record);
+        epochsByGroupKey.put(record.getGroupKey(), ++nextEpoch);
     }
 
     /**
      * Remove a lock record by container position.
      */
     public void removeLock(BlockPos containerPos) {
-        LockRecord record = locksByPosition.get(containerPos);
-        if (record != null) {
-            // Remove from position map for all container positions
-            for (BlockPos pos : record.getContainerPositions()) {
-                locksByPosition.remove(pos);
+        if (unindexLock(containerPos) && storage != null) {
+            storage.append(LockStorage.removeEntry(containerPos));
+        }
+    }
+
+    private boolean unindexLock(BlockPos containerPos) {
+        LockRecord record = locksByPosition.get(containerPos.asLong());
+        if (record == null) {
+            return false;
+        }
+
+        clearResolutions();
+
+        // Remove from position map for all container positions
+        for (BlockPos pos : record.getContainerPositions()) {
+            locksByPosition.remove(pos.asLong());
+        }
+
+        // Remove from sign map
+        locksBySign.remove(record.getSignPos().asLong(), record);
+
+        // Remove from the chunk buckets
+        for (long chunkKey : getChunkKeys(record)) {
+            List<LockRecord> bucket = locksByChunk.get(chunkKey);
+            if (bucket != null) {
+                bucket.remove(record);
+                if (bucket.isEmpty()) {
+                    locksByChunk.remove(chunkKey);
+                }
             }
+        }
 
-            // Remove from group ID map
-            String groupId = computeGroupId(record.getContainerPositions());
-            locksByGroupId.remove(groupId);
+        // Remove from owner map
+        Set<LockRecord> owned = locksByOwner.get(record.getOwnerUuid());
+        if (owned != null) {
+            owned.remove(record);
+            if (owned.isEmpty()) {
+                locksByOwner.remove(record.getOwnerUuid());
+            }
+        }
 
-            setDirty();
+        // Remove from group key map
+        if (locksByGroupKey.remove(record.getGroupKey(), record)) {
+            epochsByGroupKey.remove(record.getGroupKey());
+            verifiedEpochsByGroupKey.remove(record.getGroupKey());
+        }
+        return true;
+    }
+
+    /**
+     * Get the distinct chunks holding a lock's containers and sign.
+     */
+    private static LongSet getChunkKeys(LockRecord record) {
+        LongSet chunkKeys = new LongArraySet(3);
+        for (BlockPos pos : record.getContainerPositions()) {
+            chunkKeys.add(ChunkPos.asLong(pos));
+        }
+        chunkKeys.add(ChunkPos.asLong(record.getSignPos()));
+        return chunkKeys;
+    }
+
+    /**
+     * Apply one journal entry on top of the loaded snapshot.
+     */
+    void replay(CompoundTag entry) {
+        String op = entry.getString("Op").orElse("");
+        switch (op) {
+            case LockStorage.OP_ADD -> entry.getCompound("Lock").ifPresent(lockTag -> indexLock(LockRecord.fromNbt(lockTag)));
+            case LockStorage.OP_REMOVE -> entry.getLong("Pos").ifPresent(pos -> unindexLock(BlockPos.of(pos)));
+            case LockStorage.OP_UPDATE -> {
+                entry.getLong("Pos").ifPresent(pos -> unindexLock(BlockPos.of(pos)));
+                entry.getCompound("Lock").ifPresent(lockTag -> indexLock(LockRecord.fromNbt(lockTag)));
+            }
+            default -> throw new IllegalArgumentException("Unknown journal operation: " + op);
         }
     }
 
@@ -167,101 +344,411 @@ public class LockState extends SavedData {
      * Get the lock record for a container position.
      */
     public Optional<LockRecord> getLock(BlockPos containerPos) {
-        return Optional.ofNullable(locksByPosition.get(containerPos));
+        return getLock(containerPos.asLong());
+    }
+
+    /**
+     * Get the lock record for a packed container position (see {@link BlockPos#asLong()}).
+     * Lets hot callers probe the index without allocating a BlockPos.
+     */
+    public Optional<LockRecord> getLock(long packedPos) {
+        return Optional.ofNullable(findLock(packedPos));
+    }
+
+    /**
+     * Get the lock record for a packed container position, or null if it isn't locked.
+     * For hot paths, where even the Optional is one allocation too many.
+     */
+    public LockRecord findLock(long packedPos) {
+        return locksByPosition.get(packedPos);
+    }
+
+    /**
+     * Get the lock record whose private sign is at a packed position, or null if there is none.
+     */
+    public LockRecord findLockBySign(long packedSignPos) {
+        return locksBySign.get(packedSignPos);
+    }
+
+    /**
+     * Get the lock record for a container group key (see {@link LockRecord#getGroupKey()}),
+     * or null if the group is not locked.
+     */
+    public LockRecord getLockByGroupKey(long groupKey) {
+        return locksByGroupKey.get(groupKey);
+    }
+
+    /**
+     * Get the epoch of a lock: a number that changes every time the lock is added,
+     * updated or removed, and is never reused, not even by another dimension.
+     * Returns 0 for locks that are not in this store.
+     */
+    public long getLockEpoch(LockRecord record) {
+        return locksByGroupKey.get(record.getGroupKey()) == record ? epochsByGroupKey.get(record.getGroupKey()) : 0L;
+    }
+
+    /**
+     * Record that a lock's sign was found valid at the lock's current epoch.
+     */
+    public void markVerified(LockRecord record) {
+        long epoch = getLockEpoch(record);
+        if (epoch != 0L) {
+            verifiedEpochsByGroupKey.put(record.getGroupKey(), epoch);
+        }
+    }
+
+    /**
+     * Check if a lock's sign was found valid since the lock last changed.
+     */
+    public boolean isVerified(LockRecord record) {
+        long epoch = getLockEpoch(record);
+        return epoch != 0L && verifiedEpochsByGroupKey.get(record.getGroupKey()) == epoch;
+    }
+
+    /**
+     * Forget which locks with a container or sign in a chunk were verified.
+     * Called when the chunk unloads, since its blocks can change while nobody watches.
+     */
+    public void forgetVerifiedInChunk(long chunkKey) {
+        List<LockRecord> bucket = locksByChunk.get(chunkKey);
+        if (bucket == null) {
+            return;
+        }
+        for (LockRecord record : bucket) {
+            verifiedEpochsByGroupKey.remove(record.getGroupKey());
+        }
+    }
+
+    /**
+     * Forget that the lock with a container or its sign at a packed position was verified.
+     */
+    public void forgetVerifiedAt(long packedPos) {
+        LockRecord record = locksByPosition.get(packedPos);
+        if (record == null) {
+            record = locksBySign.get(packedPos);
+        }
+        if (record != null) {
+            verifiedEpochsByGroupKey.remove(record.getGroupKey());
+        }
+    }
+
+    /**
+     * Get a copy of the locks with a container or their sign in a chunk.
+     */
+    List<LockRecord> copyLocksInChunk(long chunkKey) {
+        List<LockRecord> bucket = locksByChunk.get(chunkKey);
+        return bucket == null ? List.of() : new ArrayList<>(bucket);
+    }
+
+    /**
+     * Get what a packed position resolved to earlier in this tick, or null if it wasn't resolved yet.
+     */
+    public Resolution getResolution(long packedPos) {
+        return resolutions.get(packedPos);
+    }
+
+    /**
+     * Remember what a packed position resolved to, until the end of the tick or the next change.
+     */
+    public void putResolution(long packedPos, Resolution resolution) {
+        resolutions.put(packedPos, resolution);
+    }
+
+    /**
+     * Forget what one packed position resolved to, e.g. because its block changed.
+     */
+    public void forgetResolution(long packedPos) {
+        if (!resolutions.isEmpty()) {
+            resolutions.remove(packedPos);
+        }
+    }
+
+    /**
+     * Forget every position resolution, e.g. because a block they may depend on changed.
+     */
+    public void clearResolutions() {
+        if (!resolutions.isEmpty()) {
+            resolutions.clear();
+        }
+    }
+
+    /**
+     * Check if any lock has a container or its sign in a chunk.
+     * Hot paths check this first so unlocked chunks cost a single primitive lookup.
+     */
+    public boolean hasLocksInChunk(long chunkKey) {
+        return locksByChunk.containsKey(chunkKey);
     }
 
     /**
-     * Get the lock record for a container group.
+     * Check if any lock has a container or its sign in the chunk of a packed position.
      */
-    public Optional<LockRecord> getLockByGroupId(String groupId) {
-        return Optional.ofNullable(locksByGroupId.get(groupId));
+    public boolean hasLocksInChunkOf(long packedPos) {
+        return hasLocksInChunk(ChunkPos.asLong(BlockPos.getX(packedPos) >> 4, BlockPos.getZ(packedPos) >> 4));
     }
 
     /**
      * Check if a position has a lock.
      */
     public boolean isLocked(BlockPos containerPos) {
-        return locksByPosition.containsKey(containerPos);
+        return isLocked(containerPos.asLong());
+    }
+
+    /**
+     * Check if a packed position has a lock.
+     */
+    public boolean isLocked(long packedPos) {
+        return locksByPosition.containsKey(packedPos);
+    }
+
+    /**
+     * Check if a packed position is a locked container or the sign of a lock.
+     */
+    public boolean isTracked(long packedPos) {
+        return locksByPosition.containsKey(packedPos) || locksBySign.containsKey(packedPos);
     }
 
     /**
      * Get all lock records.
      */
     public Collection<LockRecord> getAllLocks() {
-        // Return unique records only
-        return new HashSet<>(locksByPosition.values());
+        // One entry per group, so records are already unique
+        return new ArrayList<>(locksByGroupKey.values());
+    }
+
+    /**
+     * Get the locks owned by a player.
+     */
+    public List<LockRecord> getLocksByOwner(UUID ownerUuid) {
+        Set<LockRecord> owned = locksByOwner.get(ownerUuid);
+        return owned == null ? List.of() : new ArrayList<>(owned);
+    }
+
+    /**
+     * Get the number of locks owned by a player.
+     */
+    public int getLockCountByOwner(UUID ownerUuid) {
+        Set<LockRecord> owned = locksByOwner.get(ownerUuid);
+        return owned == null ? 0 : owned.size();
+    }
+
+    /**
+     * Get the owners of all locks, with the name stored on their locks.
+     */
+    public Map<UUID, String> getOwners() {
+        Map<UUID, String> owners = new HashMap<>();
+        for (Map.Entry<UUID, Set<LockRecord>> entry : locksByOwner.entrySet()) {
+            owners.put(entry.getKey(), entry.getValue().iterator().next().getOwnerName());
+        }
+        return owners;
     }
 
     /**
      * Get locks in a specific area (for list_in_area command).
+     * Only the chunk buckets within the radius are visited.
      */
     public List<LockRecord> getLocksInArea(BlockPos center, int chunkRadius) {
-        int minX = (center.getX() >> 4) - chunkRadius;
-        int maxX = (center.getX() >> 4) + chunkRadius;
-        int minZ = (center.getZ() >> 4) - chunkRadius;
-        int maxZ = (center.getZ() >> 4) + chunkRadius;
+        int centerX = center.getX() >> 4;
+        int centerZ = center.getZ() >> 4;
+        Set<LockRecord> uniqueLocks = new LinkedHashSet<>();
+        collectChunkRange(centerX - chunkRadius, centerZ - chunkRadius, centerX + chunkRadius, centerZ + chunkRadius, uniqueLocks);
+        return new ArrayList<>(uniqueLocks);
+    }
+
+    /**
+     * Get locks with a container within a block radius of a position.
+     */
+    public List<LockRecord> getLocksInRadius(BlockPos center, int blockRadius) {
+        Set<LockRecord> candidates = new LinkedHashSet<>();
+        collectChunkRange(
+            (center.getX() - blockRadius) >> 4, (center.getZ() - blockRadius) >> 4,
+            (center.getX() + blockRadius) >> 4, (center.getZ() + blockRadius) >> 4,
+            candidates
+        );
+
+        long radiusSqr = (long) blockRadius * blockRadius;
+        List<LockRecord> result = new ArrayList<>();
+        for (LockRecord record : candidates) {
+            if (getDistanceSqr(record, center) <= radiusSqr) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
 
-        Set<LockRecord> uniqueLocks = new HashSet<>();
+    /**
+     * Get locks with a container inside a bounding box.
+     */
+    public List<LockRecord> getLocksInBox(BoundingBox box) {
+        Set<LockRecord> candidates = new LinkedHashSet<>();
+        collectChunkRange(box.minX() >> 4, box.minZ() >> 4, box.maxX() >> 4, box.maxZ() >> 4, candidates);
 
-        for (LockRecord record : locksByPosition.values()) {
+        List<LockRecord> result = new ArrayList<>();
+        for (LockRecord record : candidates) {
             for (BlockPos pos : record.getContainerPositions()) {
-                int chunkX = pos.getX() >> 4;
-                int chunkZ = pos.getZ() >> 4;
+                if (box.isInside(pos)) {
+                    result.add(record);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
 
-                if (chunkX >= minX && chunkX <= maxX && chunkZ >= minZ && chunkZ <= maxZ) {
-                    uniqueLocks.add(record);
+    /**
+     * Get up to {@code count} locks closest to a position, nearest first.
+     * Chunks are searched in rings around the position, stopping once no unvisited
+     * chunk can hold a closer lock or {@code maxChunkRadius} is reached.
+     */
+    public List<LockRecord> getNearestLocks(BlockPos center, int count, int maxChunkRadius) {
+        if (count <= 0) {
+            return List.of();
+        }
+
+        int centerX = center.getX() >> 4;
+        int centerZ = center.getZ() >> 4;
+        Set<LockRecord> candidates = new LinkedHashSet<>();
+
+        for (int ring = 0; ring <= maxChunkRadius; ring++) {
+            if (ring == 0) {
+                collectChunkRange(centerX, centerZ, centerX, centerZ, candidates);
+            } else {
+                // Top and bottom rows, then the left and right columns between them
+                collectChunkRange(centerX - ring, centerZ - ring, centerX + ring, centerZ - ring, candidates);
+                collectChunkRange(centerX - ring, centerZ + ring, centerX + ring, centerZ + ring, candidates);
+                collectChunkRange(centerX - ring, centerZ - ring + 1, centerX - ring, centerZ + ring - 1, candidates);
+                collectChunkRange(centerX + ring, centerZ - ring + 1, centerX + ring, centerZ + ring - 1, candidates);
+            }
+
+            if (candidates.size() >= count) {
+                // Anything outside this ring is more than ring * 16 blocks away horizontally
+                long ringDistance = (long) ring * 16;
+                long countDistance = sortByDistance(candidates, center).get(count - 1).distanceSqr();
+                if (countDistance <= ringDistance * ringDistance) {
                     break;
                 }
             }
         }
 
-        return new ArrayList<>(uniqueLocks);
+        List<LockRecord> result = new ArrayList<>();
+        for (DistancedLock entry : sortByDistance(candidates, center)) {
+            if (result.size() == count) {
+                break;
+            }
+            result.add(entry.lock());
+        }
+        return result;
+    }
+
+    private static List<DistancedLock> sortByDistance(Collection<LockRecord> locks, BlockPos center) {
+        List<DistancedLock> sorted = new ArrayList<>(locks.size());
+        for (LockRecord record : locks) {
+            sorted.add(new DistancedLock(record, getDistanceSqr(record, center)));
+        }
+        sorted.sort(Comparator.comparingLong(DistancedLock::distanceSqr));
+        return sorted;
+    }
+
+    private record DistancedLock(LockRecord lock, long distanceSqr) {
+    }
+
+    private void collectChunkRange(int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ, Set<LockRecord> result) {
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                List<LockRecord> bucket = locksByChunk.get(ChunkPos.asLong(chunkX, chunkZ));
+                if (bucket != null) {
+                    result.addAll(bucket);
+                }
+            }
+        }
     }
 
     /**
-     * Compute a unique group ID for a set of container positions.
-     * For single containers, this is just the position string.
-     * For double chests, this combines both positions in a sorted order.
+     * Squared distance from a position to the closest container of a lock.
      */
-    public String computeGroupId(Set<BlockPos> positions) {
-        if (positions.isEmpty()) {
-            return "";
+    private static long getDistanceSqr(LockRecord record, BlockPos center) {
+        long best = Long.MAX_VALUE;
+        for (BlockPos pos : record.getContainerPositions()) {
+            long dx = pos.getX() - center.getX();
+            long dy = pos.getY() - center.getY();
+            long dz = pos.getZ() - center.getZ();
+            best = Math.min(best, dx * dx + dy * dy + dz * dz);
         }
+        return best;
+    }
+
+    private void addPendingLegacyLock(LockRecord record) {
+        long chunkKey = ChunkPos.asLong(record.getSignPos());
+        pendingLegacyLocks.computeIfAbsent(chunkKey, key -> new ArrayList<>()).add(record);
+    }
 
-        if (positions.size() == 1) {
-            BlockPos pos = positions.iterator().next();
-            return pos.getX() + "," + pos.getY() + "," + pos.getZ();
+    /**
+     * Move legacy locks whose sign lives in a freshly loaded chunk into the store of
+     * the level where that sign is actually a valid [private] sign.
+     * Legacy locks only exist in the overworld store, where the old single file lived.
+     */
+    public static void claimLegacyLocks(ServerLevel level, LevelChunk chunk) {
+        LockState overworldState = get(level.getServer().overworld());
+        if (overworldState.pendingLegacyLocks.isEmpty()) {
+            return;
         }
 
-        // Sort positions for consistent group ID
-        List<BlockPos> sorted = new ArrayList<>(positions);
-        sorted.sort(Comparator.comparingLong(BlockPos::asLong));
+        List<LockRecord> bucket = overworldState.pendingLegacyLocks.get(chunk.getPos().toLong());
+        if (bucket == null) {
+            return;
+        }
 
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < sorted.size(); i++) {
-            if (i > 0) sb.append(";");
-            BlockPos pos = sorted.get(i);
-            sb.append(pos.getX()).append(",").append(pos.getY()).append(",").append(pos.getZ());
+        LockState targetState = level.dimension() == Level.OVERWORLD ? overworldState : get(level);
+        boolean claimed = false;
+        Iterator<LockRecord> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            LockRecord record = iterator.next();
+            // Only reads the sign's own block, which is inside the loaded chunk
+            if (SignUtils.isValidPrivateSign(chunk, record.getSignPos(), record.getContainerPositions())) {
+                iterator.remove();
+                targetState.addLock(record);
+                claimed = true;
+            }
+        }
+
+        if (bucket.isEmpty()) {
+            overworldState.pendingLegacyLocks.remove(chunk.getPos().toLong());
+        }
+        if (claimed) {
+            // The pending list lives only in the snapshot, so rewrite it at the next save
+            overworldState.requestCompaction();
         }
+    }
 
-        return sb.toString();
+    /**
+     * What a position resolved to: the block there, and the lock of its container group
+     * or of the sign it is, or null if none.
+     */
+    public record Resolution(BlockState state, LockRecord lock) {
     }
 
     /**
-     * Clean up dangling lock records (where the sign no longer exists).
-     * This should be called periodically or during access checks.
+     * Point-in-time copy of a store, encoded to NBT off the server thread.
      */
-    public void cleanupDanglingLocks(java.util.function.Predicate<LockRecord> isValid) {
-        List<BlockPos> toRemove = new ArrayList<>();
+    record Snapshot(List<LockRecord> locks, List<LockRecord> legacyLocks) {
+        CompoundTag encode() {
+            ListTag lockList = new ListTag();
+            for (LockRecord record : locks) {
+                lockList.add(record.toNbt());
+            }
 
-        for (Map.Entry<BlockPos, LockRecord> entry : locksByPosition.entrySet()) {
-            if (!isValid.test(entry.getValue())) {
-                toRemove.add(entry.getKey());
+            ListTag legacyList = new ListTag();
+            for (LockRecord record : legacyLocks) {
+                legacyList.add(record.toNbt());
             }
-        }
 
-        for (BlockPos pos : toRemove) {
-            removeLock(pos);
+            CompoundTag tag = new CompoundTag();
+            tag.putInt("Format", FORMAT_VERSION);
+            tag.put("Locks", lockList);
+            if (!legacyList.isEmpty()) {
+                tag.put("LegacyLocks", legacyList);
+            }
+            return tag;
         }
     }
 }
@@ -0,0 +1,406 @@
+package com.simpleforapanda.privatechests.state;
+
+import com.simpleforapanda.privatechests.PrivateChests;
+import com.simpleforapanda.privatechests.model.LockRecord;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.level.storage.LevelResource;
+
+import java.io.*;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Persists the locks of one dimension as a compressed snapshot plus an append-only journal.
+ *
+ * <p>Every add, remove and update is appended to the journal as it happens, so saving the
+ * world never has to re-serialize the whole store. Once the journal grows past
+ * {@code journalCompactionThreshold} entries it is folded into a fresh snapshot.
+ * On startup the snapshot is loaded and the journal is replayed on top of it.</p>
+ *
+ * <p>Compaction only takes an immutable snapshot on the server thread. Encoding, compression
+ * and the atomic file write run on a background thread. The journal is rotated into a
+ * numbered segment at snapshot time so new changes keep appending to a fresh file; segments
+ * are deleted once a snapshot covering them is safely on disk.</p>
+ *
+ * <p>The snapshot keeps the same layout vanilla used for saved data
+ * ({@code data/private_chests.dat}), so existing files load unchanged.</p>
+ */
+public class LockStorage {
+    static final String OP_ADD = "add";
+    static final String OP_REMOVE = "remove";
+    static final String OP_UPDATE = "update";
+
+    private static final String SNAPSHOT_FILE = "private_chests.dat";
+    private static final String JOURNAL_FILE = "private_chests.journal";
+
+    // Shared by all dimensions; writes are rare and ordering per dimension matters more than throughput
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Private Chests Storage");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path dataFolder;
+    private final Path snapshotFile;
+    private final Path journalFile;
+
+    private DataOutputStream journalOut;
+
+    // Sequence number of the last journal entry written; stored in the snapshot on compaction
+    private long lastSeq;
+
+    // Entries in the journal since the last compaction
+    private int journalEntries;
+
+    // Background snapshot write currently running, if any
+    private CompletableFuture<Void> pendingWrite = CompletableFuture.completedFuture(null);
+    private volatile boolean lastWriteFailed;
+
+    // Timings of the most recent compaction
+    private volatile long lastSnapshotNanos;
+    private volatile long lastWriteNanos;
+
+    private LockStorage(Path dataFolder) {
+        this.dataFolder = dataFolder;
+        this.snapshotFile = dataFolder.resolve(SNAPSHOT_FILE);
+        this.journalFile = dataFolder.resolve(JOURNAL_FILE);
+    }
+
+    /**
+     * Load the lock store of a dimension: snapshot first, then the journal on top.
+     */
+    static LockState load(ServerLevel level) {
+        Path worldRoot = level.getServer().getWorldPath(LevelResource.ROOT);
+        LockStorage storage = new LockStorage(DimensionType.getStorageFolder(level.dimension(), worldRoot).resolve("data"));
+
+        long startNanos = System.nanoTime();
+        LockState state = new LockState();
+        long snapshotSeq = storage.readSnapshot(state);
+        storage.lastSeq = snapshotSeq;
+
+        // Segments left by a compaction whose write never finished come before the live journal
+        int replayed = 0;
+        for (Path segment : storage.findJournalSegments()) {
+            replayed += storage.replayJournal(state, segment, snapshotSeq);
+        }
+        replayed += storage.replayJournal(state, storage.journalFile, snapshotSeq);
+
+        storage.openJournal(false);
+        storage.journalEntries = replayed;
+        state.attachStorage(storage);
+
+        PrivateChests.LOGGER.info("Loaded {} locks for {} in {} ms ({} journal entries replayed)",
+            state.getLockCount(), level.dimension(), (System.nanoTime() - startNanos) / 1_000_000, replayed);
+
+        // Start every session from a clean, current-format snapshot and an empty journal
+        if (replayed > 0 || state.isCompactionRequested()) {
+            storage.compact(state);
+        }
+
+        return state;
+    }
+
+    /**
+     * Read the snapshot into the state and return the journal sequence it covers.
+     */
+    private long readSnapshot(LockState state) {
+        if (!Files.exists(snapshotFile)) {
+            return 0L;
+        }
+
+        // Stream records straight into the indexes instead of reading the whole tag tree first
+        LockSnapshotReader reader = new LockSnapshotReader(state);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(snapshotFile))))) {
+            NbtIo.parse(in, reader, NbtAccounter.unlimitedHeap());
+            return reader.finish();
+        } catch (IOException e) {
+            // Keep the unreadable file around instead of overwriting it at the next compaction
+            Path backup = dataFolder.resolve(SNAPSHOT_FILE + ".corrupt");
+            PrivateChests.LOGGER.error("Failed to read lock snapshot {}, moving it to {}", snapshotFile, backup, e);
+            try {
+                Files.move(snapshotFile, backup, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException moveError) {
+                PrivateChests.LOGGER.error("Failed to move unreadable lock snapshot", moveError);
+            }
+            return 0L;
+        }
+    }
+
+    /**
+     * Rotated journal segments, oldest first. Each is named after the last sequence it holds.
+     */
+    private List<Path> findJournalSegments() {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(dataFolder)) {
+            return segments;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dataFolder, JOURNAL_FILE + ".*")) {
+            for (Path path : stream) {
+                if (segmentSeq(path) >= 0) {
+                    segments.add(path);
+                }
+            }
+        } catch (IOException e) {
+            PrivateChests.LOGGER.error("Failed to list lock journal segments in {}", dataFolder, e);
+        }
+
+        segments.sort(Comparator.comparingLong(LockStorage::segmentSeq));
+        return segments;
+    }
+
+    private static long segmentSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(JOURNAL_FILE.length() + 1));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * Replay journal entries newer than the snapshot. A torn entry at the end
+     * (crash mid-write) ends the replay and asks for a compaction, so nothing is
+     * ever appended behind it.
+     */
+    private int replayJournal(LockState state, Path file, long snapshotSeq) {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        int replayed = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                // Only an end of file between two entries is a clean end; one inside an entry is a torn write
+                in.mark(1);
+                if (in.read() < 0) {
+                    break;
+                }
+                in.reset();
+
+                CompoundTag entry = NbtIo.read(in, NbtAccounter.unlimitedHeap());
+
+                long seq = entry.getLong("Seq").orElse(0L);
+                if (seq <= snapshotSeq) {
+                    continue; // Already folded into the snapshot
+                }
+
+                state.replay(entry);
+                lastSeq = seq;
+                replayed++;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Never append behind a damaged entry; rewrite the snapshot and start a clean journal
+            PrivateChests.LOGGER.warn("Stopped replaying lock journal {} after {} entries", file, replayed, e);
+            state.requestCompaction();
+        }
+
+        return replayed;
+    }
+
+    private void openJournal(boolean truncate) {
+        try {
+            Files.createDirectories(dataFolder);
+            journalOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                truncate ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND)));
+            if (truncate) {
+                journalEntries = 0;
+            }
+        } catch (IOException e) {
+            PrivateChests.LOGGER.error("Failed to open lock journal {}", journalFile, e);
+            journalOut = null;
+        }
+    }
+
+    /**
+     * Append one mutation to the journal.
+     */
+    void append(CompoundTag entry) {
+        entry.putLong("Seq", ++lastSeq);
+        journalEntries++;
+
+        if (journalOut == null) {
+            return; // Journal unavailable, the next compaction still captures this change
+        }
+
+        try {
+            NbtIo.write(entry, journalOut);
+            journalOut.flush();
+        } catch (IOException e) {
+            PrivateChests.LOGGER.error("Failed to append to lock journal {}", journalFile, e);
+        }
+    }
+
+    /**
+     * Compact if the journal is long enough or the state asked for a fresh snapshot.
+     */
+    void compactIfNeeded(LockState state) {
+        int threshold = PrivateChests.getConfig().getJournalCompactionThreshold();
+        if (journalEntries >= threshold || state.isCompactionRequested() || lastWriteFailed) {
+            compact(state);
+        }
+    }
+
+    /**
+     * Fold the journal into a new snapshot. The server thread only takes the snapshot and
+     * rotates the journal; the write happens in the background.
+     */
+    void compact(LockState state) {
+        if (!pendingWrite.isDone()) {
+            return; // Previous snapshot still being written, try again at the next save
+        }
+
+        long startNanos = System.nanoTime();
+        LockState.Snapshot snapshot = state.snapshot();
+        long snapshotSeq = lastSeq;
+
+        // Everything up to snapshotSeq moves to a segment that is deleted once the snapshot lands.
+        // A requested compaction always restarts the journal, which may end in a torn entry.
+        if (journalEntries > 0 || state.isCompactionRequested()) {
+            closeJournal();
+            Path segment = dataFolder.resolve(JOURNAL_FILE + "." + snapshotSeq);
+            try {
+                // A journal that failed to open or is empty has nothing to rotate; the snapshot alone holds
+                // the changes. A segment of the same seq is left by a crash before its snapshot landed: the
+                // journal then holds nothing newer than that segment, so the segment stays and the journal restarts.
+                if (Files.exists(journalFile) && Files.size(journalFile) > 0 && !Files.exists(segment)) {
+                    Files.move(journalFile, segment);
+                }
+            } catch (IOException e) {
+                PrivateChests.LOGGER.error("Failed to rotate lock journal {}", journalFile, e);
+                openJournal(false);
+                return;
+            }
+            openJournal(true);
+            journalEntries = 0;
+        }
+        state.clearCompactionRequest();
+        lastWriteFailed = false;
+        lastSnapshotNanos = System.nanoTime() - startNanos;
+
+        pendingWrite = CompletableFuture.runAsync(() -> writeSnapshot(snapshot, snapshotSeq), WRITER);
+    }
+
+    /**
+     * Encode, compress and atomically replace the snapshot file. Runs on the storage thread.
+     */
+    private void writeSnapshot(LockState.Snapshot snapshot, long snapshotSeq) {
+        long startNanos = System.nanoTime();
+
+        CompoundTag data = snapshot.encode();
+        data.putLong("JournalSeq", snapshotSeq);
+
+        CompoundTag root = new CompoundTag();
+        root.put("data", data);
+        NbtUtils.addCurrentDataVersion(root);
+
+        try {
+            Files.createDirectories(dataFolder);
+            Path tempFile = Files.createTempFile(dataFolder, "private_chests", ".tmp");
+            NbtIo.writeCompressed(root, tempFile);
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Keep the journal segments, they still hold everything since the last good snapshot
+            PrivateChests.LOGGER.error("Failed to write lock snapshot {}", snapshotFile, e);
+            lastWriteFailed = true;
+            return;
+        }
+
+        for (Path segment : findJournalSegments()) {
+            if (segmentSeq(segment) <= snapshotSeq) {
+                try {
+                    Files.deleteIfExists(segment);
+                } catch (IOException e) {
+                    PrivateChests.LOGGER.warn("Failed to delete lock journal segment {}", segment, e);
+                }
+            }
+        }
+
+        lastWriteNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Compact any outstanding changes, wait for the write and release the journal file.
+     */
+    void close(LockState state) {
+        if (journalEntries > 0 || state.isCompactionRequested() || lastWriteFailed) {
+            pendingWrite.join();
+            compact(state);
+        }
+        pendingWrite.join();
+        closeJournal();
+    }
+
+    private void closeJournal() {
+        if (journalOut == null) {
+            return;
+        }
+
+        try {
+            journalOut.close();
+        } catch (IOException e) {
+            PrivateChests.LOGGER.error("Failed to close lock journal {}", journalFile, e);
+        }
+        journalOut = null;
+    }
+
+    /**
+     * Get the number of changes journaled since the last compaction.
+     */
+    public int getJournalEntries() {
+        return journalEntries;
+    }
+
+    /**
+     * Get how long the last compaction held the server thread to take its snapshot.
+     */
+    public long getLastSnapshotNanos() {
+        return lastSnapshotNanos;
+    }
+
+    /**
+     * Get how long the last background encode and write took.
+     */
+    public long getLastWriteNanos() {
+        return lastWriteNanos;
+    }
+
+    static CompoundTag addEntry(LockRecord record) {
+        CompoundTag entry = new CompoundTag();
+        entry.putString("Op", OP_ADD);
+        entry.put("Lock", record.toNbt());
+        return entry;
+    }
+
+    static CompoundTag removeEntry(BlockPos containerPos) {
+        CompoundTag entry = new CompoundTag();
+        entry.putString("Op", OP_REMOVE);
+        entry.putLong("Pos", containerPos.asLong());
+        return entry;
+    }
+
+    static CompoundTag updateEntry(BlockPos existingPos, LockRecord updated) {
+        CompoundTag entry = new CompoundTag();
+        entry.putString("Op", OP_UPDATE);
+        entry.putLong("Pos", existingPos.asLong());
+        entry.put("Lock", updated.toNbt());
+        return entry;
+    }
+}
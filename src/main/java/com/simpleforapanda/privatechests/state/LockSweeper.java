@@ -0,0 +1,373 @@
+package com.simpleforapanda.privatechests.state;
+
+import com.simpleforapanda.privatechests.PrivateChests;
+import com.simpleforapanda.privatechests.model.LockRecord;
+import com.simpleforapanda.privatechests.util.ContainerUtils;
+import com.simpleforapanda.privatechests.util.SignUtils;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Looks for dangling locks (sign gone or no longer [private]) in the background.
+ *
+ * <p>Each server tick the sweepers of all dimensions together validate locks until
+ * {@code sweepBudgetMicros} is spent, picking up where they left off on the next tick.
+ * Only locks whose sign and containers are in loaded chunks are validated; the rest are
+ * skipped for this pass rather than loading chunks. Valid locks are marked verified
+ * (see {@link LockState#markVerified}), dangling ones are removed.</p>
+ *
+ * <p>Locks in a chunk that just loaded are validated all at once at the end of that tick,
+ * outside the budget, so they are verified before anyone gets to open them. They stay
+ * verified until the lock changes or one of its chunks unloads.</p>
+ *
+ * <p>Block changes at a lock's containers or sign that don't go through a player
+ * ({@code /setblock}, {@code /fill}, pistons, structures) are picked up by the chunk
+ * (see {@code LevelChunkMixin}) and handled at the end of the tick: containers that are
+ * gone are dropped from the lock, and the lock is removed if its sign is no longer valid.</p>
+ */
+public class LockSweeper {
+    // Dimension the next tick starts with, so one large store can't use up every tick's budget
+    private static int nextLevelIndex;
+
+    // Loaded levels; an array so ticks don't allocate iterating the server's level map
+    private static ServerLevel[] levels = new ServerLevel[0];
+
+    private final LockState state;
+
+    // Chunks with locks that loaded this tick
+    private final LongOpenHashSet loadedChunks = new LongOpenHashSet();
+    private int verifiedOnLoad;
+    private int removedOnLoad;
+
+    // Locked containers and signs whose block changed this tick
+    private final LongOpenHashSet changedPositions = new LongOpenHashSet();
+    private int updatedOnChange;
+    private int removedOnChange;
+
+    // Group keys of the current pass and how far into them we are
+    private LongArrayList pass = new LongArrayList();
+    private int cursor;
+    private long passStartedAt;
+
+    // Progress of the current pass
+    private int verifiedInPass;
+    private int skippedInPass;
+    private int removedInPass;
+
+    // Results of the last completed pass
+    private int completedPasses;
+    private long lastPassMillis;
+    private int lastPassSkipped;
+    private int lastPassRemoved;
+
+    LockSweeper(LockState state) {
+        this.state = state;
+    }
+
+    /**
+     * Called at the end of every server tick.
+     */
+    public static void tick(MinecraftServer server) {
+        ServerLevel[] levels = LockSweeper.levels;
+        for (ServerLevel level : levels) {
+            LockSweeper sweeper = LockState.get(level).getSweeper();
+            sweeper.revalidateChangedBlocks(level);
+            sweeper.verifyLoadedChunks(level);
+        }
+
+        long budgetNanos = PrivateChests.getConfig().getSweepBudgetMicros() * 1_000L;
+        if (budgetNanos <= 0 || levels.length == 0) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + budgetNanos;
+        int start = Math.floorMod(nextLevelIndex++, levels.length);
+        for (int i = 0; i < levels.length && System.nanoTime() < deadline; i++) {
+            ServerLevel level = levels[(start + i) % levels.length];
+            LockState.get(level).getSweeper().sweep(level, deadline);
+        }
+    }
+
+    private void sweep(ServerLevel level, long deadline) {
+        if (cursor >= pass.size() && !startPass()) {
+            return;
+        }
+
+        while (cursor < pass.size() && System.nanoTime() < deadline) {
+            LockRecord lock = state.getLockByGroupKey(pass.getLong(cursor++));
+            if (lock == null) {
+                continue; // Removed since the pass started
+            }
+
+            if (!isLoaded(level, lock)) {
+                skippedInPass++;
+                continue;
+            }
+
+            if (verify(level, lock)) {
+                verifiedInPass++;
+            } else {
+                removedInPass++;
+            }
+        }
+
+        if (cursor >= pass.size()) {
+            finishPass();
+        }
+    }
+
+    /**
+     * Called when a level loads, to include it in the sweep.
+     */
+    public static void onLevelLoad(MinecraftServer server, ServerLevel level) {
+        levels = Arrays.copyOf(levels, levels.length + 1);
+        levels[levels.length - 1] = level;
+    }
+
+    /**
+     * Called when a level unloads, to leave it out of the sweep.
+     */
+    public static void onLevelUnload(MinecraftServer server, ServerLevel level) {
+        levels = Arrays.stream(levels).filter(loaded -> loaded != level).toArray(ServerLevel[]::new);
+    }
+
+    /**
+     * Called when a chunk finishes loading. Its locks are validated at the end of the tick,
+     * once the chunk's block entities are reachable through the level.
+     */
+    public static void onChunkLoad(ServerLevel level, LevelChunk chunk) {
+        LockState state = LockState.get(level);
+        long chunkKey = chunk.getPos().toLong();
+        if (state.hasLocksInChunk(chunkKey)) {
+            state.getSweeper().loadedChunks.add(chunkKey);
+        }
+    }
+
+    /**
+     * Called when a chunk unloads. Its locks have to be validated again once it is back.
+     */
+    public static void onChunkUnload(ServerLevel level, LevelChunk chunk) {
+        LockState state = LockState.get(level);
+        long chunkKey = chunk.getPos().toLong();
+        state.getSweeper().loadedChunks.remove(chunkKey);
+        state.forgetVerifiedInChunk(chunkKey);
+    }
+
+    /**
+     * Called whenever a block in a loaded chunk changes, or the text of a sign in one changes,
+     * on the server thread. Only changes at a locked container or a lock's sign are queued.
+     */
+    public static void onBlockChanged(ServerLevel level, long packedPos) {
+        LockState state = LockState.get(level);
+        if (!state.hasLocksInChunkOf(packedPos)) {
+            // Still resolved when it is the other half of a chest locked from the next chunk
+            state.forgetResolution(packedPos);
+            return;
+        }
+
+        // A block near a lock changed, e.g. a chest joined a locked one; resolve positions afresh
+        state.clearResolutions();
+        if (!state.isTracked(packedPos)) {
+            return;
+        }
+
+        // Don't trust the lock until it has been looked at again
+        state.forgetVerifiedAt(packedPos);
+        state.getSweeper().changedPositions.add(packedPos);
+    }
+
+    private void revalidateChangedBlocks(ServerLevel level) {
+        if (changedPositions.isEmpty()) {
+            return;
+        }
+
+        LongIterator iterator = changedPositions.iterator();
+        while (iterator.hasNext()) {
+            long packedPos = iterator.nextLong();
+            LockRecord lock = state.findLock(packedPos);
+            if (lock == null) {
+                lock = state.findLockBySign(packedPos);
+            }
+            // Gone already (e.g. broken by a player), handled through another change, or unloaded again
+            if (lock == null || state.isVerified(lock) || !isLoaded(level, lock)) {
+                continue;
+            }
+            revalidate(level, lock);
+        }
+        changedPositions.clear();
+    }
+
+    /**
+     * Bring a lock in line with the world after a block change: drop containers that are gone,
+     * then validate the sign against what is left.
+     */
+    private void revalidate(ServerLevel level, LockRecord lock) {
+        Set<BlockPos> remaining = new HashSet<>();
+        for (BlockPos pos : lock.getContainerPositions()) {
+            if (ContainerUtils.isLockableContainer(level.getBlockState(pos))) {
+                remaining.add(pos);
+            }
+        }
+
+        if (remaining.isEmpty()) {
+            PrivateChests.LOGGER.info("Removing lock at {} in {} - containers no longer exist",
+                lock.getSignPos(), level.dimension().identifier());
+            state.removeLock(lock.getContainerPositions().iterator().next());
+            removedOnChange++;
+            return;
+        }
+
+        if (remaining.size() < lock.getContainerPositions().size()) {
+            LockRecord updated = new LockRecord(
+                lock.getOwnerUuid(),
+                lock.getOwnerName(),
+                lock.getSignPos(),
+                remaining,
+                lock.getAllowedUsers(),
+                lock.getResolvedUsers(),
+                lock.getCreatedAt(),
+                System.currentTimeMillis()
+            );
+            state.replaceLock(lock, updated);
+            lock = updated;
+            updatedOnChange++;
+        }
+
+        if (!verify(level, lock)) {
+            removedOnChange++;
+        }
+    }
+
+    private void verifyLoadedChunks(ServerLevel level) {
+        if (loadedChunks.isEmpty()) {
+            return;
+        }
+
+        LongIterator iterator = loadedChunks.iterator();
+        while (iterator.hasNext()) {
+            for (LockRecord lock : state.copyLocksInChunk(iterator.nextLong())) {
+                // Skip locks already handled through another chunk, and locks reaching into
+                // a chunk that isn't loaded yet; they are verified when that chunk loads
+                if (state.getLockEpoch(lock) == 0L || state.isVerified(lock) || !isLoaded(level, lock)) {
+                    continue;
+                }
+
+                if (verify(level, lock)) {
+                    verifiedOnLoad++;
+                } else {
+                    removedOnLoad++;
+                }
+            }
+        }
+        loadedChunks.clear();
+    }
+
+    /**
+     * Validate a lock whose blocks are all loaded; mark it verified, or remove it if dangling.
+     */
+    private boolean verify(ServerLevel level, LockRecord lock) {
+        if (SignUtils.isValidPrivateSign(level, lock.getSignPos(), lock.getContainerPositions())) {
+            state.markVerified(lock);
+            return true;
+        }
+
+        PrivateChests.LOGGER.info("Removing dangling lock at {} in {} - sign no longer valid",
+            lock.getSignPos(), level.dimension().identifier());
+        state.removeLock(lock.getContainerPositions().iterator().next());
+        return false;
+    }
+
+    private boolean startPass() {
+        long now = System.currentTimeMillis();
+        // A new pass starts at most this often, so small stores aren't re-validated every tick
+        long intervalMillis = PrivateChests.getConfig().getSweepPassIntervalSeconds() * 1000L;
+        if (now - passStartedAt < intervalMillis || state.getLockCount() == 0) {
+            return false;
+        }
+
+        pass = state.copyGroupKeys();
+        cursor = 0;
+        passStartedAt = now;
+        verifiedInPass = 0;
+        skippedInPass = 0;
+        removedInPass = 0;
+        return true;
+    }
+
+    private void finishPass() {
+        if (pass.isEmpty()) {
+            return;
+        }
+
+        completedPasses++;
+        lastPassMillis = System.currentTimeMillis() - passStartedAt;
+        lastPassSkipped = skippedInPass;
+        lastPassRemoved = removedInPass;
+        pass = new LongArrayList();
+        cursor = 0;
+    }
+
+    private static boolean isLoaded(ServerLevel level, LockRecord lock) {
+        if (!level.isLoaded(lock.getSignPos())) {
+            return false;
+        }
+        for (BlockPos pos : lock.getContainerPositions()) {
+            if (!level.isLoaded(pos)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get how far through the current pass the sweeper is (0 to 1), or 1 between passes.
+     */
+    public double getPassProgress() {
+        return pass.isEmpty() ? 1.0 : (double) cursor / pass.size();
+    }
+
+    public int getVerifiedInPass() {
+        return verifiedInPass;
+    }
+
+    public int getCompletedPasses() {
+        return completedPasses;
+    }
+
+    public long getLastPassMillis() {
+        return lastPassMillis;
+    }
+
+    public int getLastPassSkipped() {
+        return lastPassSkipped;
+    }
+
+    public int getLastPassRemoved() {
+        return lastPassRemoved;
+    }
+
+    public int getVerifiedOnLoad() {
+        return verifiedOnLoad;
+    }
+
+    public int getRemovedOnLoad() {
+        return removedOnLoad;
+    }
+
+    public int getUpdatedOnChange() {
+        return updatedOnChange;
+    }
+
+    public int getRemovedOnChange() {
+        return removedOnChange;
+    }
+}
@@ -0,0 +1,87 @@
+package com.simpleforapanda.privatechests.util;
+
+import com.simpleforapanda.privatechests.PrivateChests;
+import com.simpleforapanda.privatechests.duck.ClassifiedBlock;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.Identifier;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.level.block.BarrelBlock;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.ChestBlock;
+import net.minecraft.world.level.block.WallSignBlock;
+import net.minecraft.world.level.block.state.BlockState;
+
+/**
+ * Classifies every block as a lockable container, a wall sign or neither.
+ *
+ * <p>Lockable containers are the blocks in the {@code private-chests:lockable} tag, so
+ * datapacks can add more (trapped chests, shulker boxes, furnaces...). The classification
+ * is worked out once per block whenever tags are loaded and stored on the block, so the
+ * checks in every hook are one field read instead of {@code instanceof} chains.</p>
+ */
+public class BlockClassification {
+    public static final TagKey<Block> LOCKABLE = TagKey.create(Registries.BLOCK, Identifier.fromNamespaceAndPath(PrivateChests.MOD_ID, "lockable"));
+
+    private static final byte UNCLASSIFIED = 0;
+    private static final byte NEITHER = 1;
+    private static final byte LOCKABLE_CONTAINER = 2;
+    private static final byte WALL_SIGN = 3;
+
+    /**
+     * Classify every registered block from the current tags.
+     * Called whenever the server (re)loads its tags.
+     */
+    public static void rebuild() {
+        int lockable = 0;
+        for (Block block : BuiltInRegistries.BLOCK) {
+            byte kind;
+            if (block.defaultBlockState().is(LOCKABLE)) {
+                kind = LOCKABLE_CONTAINER;
+                lockable++;
+            } else if (block instanceof WallSignBlock) {
+                kind = WALL_SIGN;
+            } else {
+                kind = NEITHER;
+            }
+            ((ClassifiedBlock) block).privateChests$setKind(kind);
+        }
+        PrivateChests.LOGGER.info("Classified {} block types as lockable containers", lockable);
+    }
+
+    /**
+     * Check if a block is a lockable container.
+     */
+    public static boolean isLockableContainer(Block block) {
+        return getKind(block) == LOCKABLE_CONTAINER;
+    }
+
+    /**
+     * Check if a block state is a lockable container.
+     */
+    public static boolean isLockableContainer(BlockState state) {
+        return isLockableContainer(state.getBlock());
+    }
+
+    /**
+     * Check if a block state is a wall sign.
+     */
+    public static boolean isWallSign(BlockState state) {
+        return getKind(state.getBlock()) == WALL_SIGN;
+    }
+
+    private static byte getKind(Block block) {
+        byte kind = ((ClassifiedBlock) block).privateChests$getKind();
+        return kind != UNCLASSIFIED ? kind : getDefaultKind(block);
+    }
+
+    /**
+     * Classification before tags are loaded: chests and barrels, as without the tag.
+     */
+    private static byte getDefaultKind(Block block) {
+        if (block instanceof ChestBlock || block instanceof BarrelBlock) {
+            return LOCKABLE_CONTAINER;
+        }
+        return block instanceof WallSignBlock ? WALL_SIGN : NEITHER;
+    }
+}
@@ -20,18 +20,17 @@ import java.util.Set;
 public class ContainerUtils {
 
     /**
-     * Check if a block is a lockable container.
+     * Check if a block is a lockable container (in the {@code private-chests:lockable} tag).
      */
     public static boolean isLockableContainer(Block block) {
-        return block instanceof ChestBlock ||
-               block instanceof BarrelBlock;
+        return BlockClassification.isLockableContainer(block);
     }
 
     /**
      * Check if a block state is a lockable container.
      */
     public static boolean isLockableContainer(BlockState state) {
-        return isLockableContainer(state.getBlock());
+        return BlockClassification.isLockableContainer(state);
     }
 
     /**
@@ -51,6 +50,28 @@ public class ContainerUtils {
         group.add(pos);
 
         // Check if this is a double chest
+        long pairedPos = getPairedPosition(pos.asLong(), state);
+        if (pairedPos != pos.asLong()) {
+            BlockPos otherPos = BlockPos.of(pairedPos);
+            BlockState otherState = level.getBlockState(otherPos);
+            if (otherState.getBlock() instanceof ChestBlock) {
+                ChestType otherType = otherState.getValue(BlockStateProperties.CHEST_TYPE);
+                if (otherType != ChestType.SINGLE) {
+                    group.add(otherPos);
+                }
+            }
+        }
+
+        return group;
+    }
+
+    /**
+     * Get the packed position (see {@link BlockPos#asLong()}) where the other half of a
+     * double chest should be, from the chest's own state. Returns the position itself for
+     * single chests and other containers. Doesn't read the world or allocate, so hot paths
+     * can use it instead of {@link #getContainerGroup}.
+     */
+    public static long getPairedPosition(long packedPos, BlockState state) {
         if (state.getBlock() instanceof ChestBlock) {
             ChestType chestType = state.getValue(BlockStateProperties.CHEST_TYPE);
 
@@ -58,19 +79,11 @@ public class ContainerUtils {
                 // Find the other half of the double chest
                 Direction facing = state.getValue(ChestBlock.FACING);
                 Direction offsetDir = chestType == ChestType.LEFT ? facing.getClockWise() : facing.getCounterClockWise();
-                BlockPos otherPos = pos.relative(offsetDir);
-
-                BlockState otherState = level.getBlockState(otherPos);
-                if (otherState.getBlock() instanceof ChestBlock) {
-                    ChestType otherType = otherState.getValue(BlockStateProperties.CHEST_TYPE);
-                    if (otherType != ChestType.SINGLE) {
-                        group.add(otherPos);
-                    }
-                }
+                return BlockPos.offset(packedPos, offsetDir);
             }
         }
 
-        return group;
+        return packedPos;
     }
 
     /**
@@ -1,9 +1,10 @@
 package com.simpleforapanda.privatechests.util;
 
+import com.simpleforapanda.privatechests.duck.ParsedSignHolder;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.world.level.BlockGetter;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.WallSignBlock;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.entity.SignBlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
@@ -23,13 +24,13 @@ public class SignUtils {
      * Check if a block is a wall sign.
      */
     public static boolean isWallSign(BlockState state) {
-        return state.getBlock() instanceof WallSignBlock;
+        return BlockClassification.isWallSign(state);
     }
 
     /**
      * Check if a sign contains the [private] marker on either front or back.
      */
-    public static boolean isPrivateSign(Level level, BlockPos signPos) {
+    public static boolean isPrivateSign(BlockGetter level, BlockPos signPos) {
         BlockState state = level.getBlockState(signPos);
         if (!isWallSign(state)) {
             return false;
@@ -40,13 +41,8 @@ public class SignUtils {
             return false;
         }
 
-        // Check front side (lines 0-3)
-        if (containsPrivateMarker(signEntity, true)) {
-            return true;
-        }
-
-        // Check back side (lines 0-3)
-        return containsPrivateMarker(signEntity, false);
+        // Check front and back side
+        return getParsedSign(signEntity).hasMarker();
     }
 
     /**
@@ -54,8 +50,29 @@ public class SignUtils {
      * The marker must be alone on the line (exact match, case-insensitive).
      */
     public static boolean containsPrivateMarker(SignBlockEntity signEntity, boolean isFront) {
-        String firstLine = signEntity.getText(isFront).getMessage(0, false).getString().trim();
-        return firstLine.equalsIgnoreCase(PRIVATE_MARKER);
+        return getParsedSign(signEntity).hasMarker(isFront);
+    }
+
+    /**
+     * Get the parsed text of a sign. Parsed once and kept on the sign until its text changes.
+     */
+    public static ParsedSign getParsedSign(SignBlockEntity signEntity) {
+        ParsedSignHolder holder = (ParsedSignHolder) signEntity;
+        ParsedSign parsedSign = holder.privateChests$getParsedSign();
+        if (parsedSign == null) {
+            parsedSign = new ParsedSign(
+                isMarkerLine(signEntity.getText(true).getMessage(0, false).getString()),
+                isMarkerLine(signEntity.getText(false).getMessage(0, false).getString()),
+                Set.copyOf(extractUsersFromSide(signEntity, true)),
+                Set.copyOf(extractUsersFromSide(signEntity, false))
+            );
+            holder.privateChests$setParsedSign(parsedSign);
+        }
+        return parsedSign;
+    }
+
+    private static boolean isMarkerLine(String line) {
+        return line.trim().equalsIgnoreCase(PRIVATE_MARKER);
     }
 
     /**
@@ -73,7 +90,7 @@ public class SignUtils {
     /**
      * Get the block position that a wall sign is attached to.
      */
-    public static Optional<BlockPos> getAttachedBlock(Level level, BlockPos signPos) {
+    public static Optional<BlockPos> getAttachedBlock(BlockGetter level, BlockPos signPos) {
         BlockState state = level.getBlockState(signPos);
         if (!isWallSign(state)) {
             return Optional.empty();
@@ -91,24 +108,22 @@ public class SignUtils {
      * Supports formats: "name", "name,name", "name, name", etc.
      */
     public static Set<String> extractAllowedUsers(SignBlockEntity signEntity) {
-        Set<String> users = new HashSet<>();
-
-        // Check front side - skip line 0 if it has [private]
-        boolean frontHasPrivate = containsPrivateMarker(signEntity, true);
-        int frontStartLine = frontHasPrivate ? 1 : 0;
-        for (int i = frontStartLine; i < 4; i++) {
-            String line = signEntity.getText(true).getMessage(i, false).getString().trim();
-            extractUsernamesFromLine(line, users);
-        }
+        ParsedSign parsedSign = getParsedSign(signEntity);
+        Set<String> users = new HashSet<>(parsedSign.frontUsers());
+        users.addAll(parsedSign.backUsers());
+        return users;
+    }
 
-        // Check back side - skip line 0 if it has [private]
-        boolean backHasPrivate = containsPrivateMarker(signEntity, false);
-        int backStartLine = backHasPrivate ? 1 : 0;
-        for (int i = backStartLine; i < 4; i++) {
-            String line = signEntity.getText(false).getMessage(i, false).getString().trim();
+    /**
+     * Extract the usernames on one side of a sign - skip line 0 if it has [private].
+     */
+    private static Set<String> extractUsersFromSide(SignBlockEntity signEntity, boolean isFront) {
+        Set<String> users = new HashSet<>();
+        int startLine = isMarkerLine(signEntity.getText(isFront).getMessage(0, false).getString()) ? 1 : 0;
+        for (int i = startLine; i < 4; i++) {
+            String line = signEntity.getText(isFront).getMessage(i, false).getString().trim();
             extractUsernamesFromLine(line, users);
         }
-
         return users;
     }
 
@@ -183,7 +198,7 @@ public class SignUtils {
      * - Sign contains [private] marker
      * - Sign is attached to the expected container
      */
-    public static boolean isValidPrivateSign(Level level, BlockPos signPos, Set<BlockPos> containerPositions) {
+    public static boolean isValidPrivateSign(BlockGetter level, BlockPos signPos, Set<BlockPos> containerPositions) {
         BlockState state = level.getBlockState(signPos);
         if (!isWallSign(state)) {
             return false;
@@ -226,4 +241,22 @@ public class SignUtils {
 
         return signs;
     }
+
+    /**
+     * The parts of a sign's text that matter for locks: whether each side has the
+     * [private] marker, and the usernames on each side.
+     */
+    public record ParsedSign(boolean frontMarker, boolean backMarker, Set<String> frontUsers, Set<String> backUsers) {
+        public boolean hasMarker() {
+            return frontMarker || backMarker;
+        }
+
+        public boolean hasMarker(boolean isFront) {
+            return isFront ? frontMarker : backMarker;
+        }
+
+        public Set<String> users(boolean isFront) {
+            return isFront ? frontUsers : backUsers;
+        }
+    }
 }
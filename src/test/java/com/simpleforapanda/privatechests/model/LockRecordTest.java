@@ -0,0 +1,65 @@
+package com.simpleforapanda.privatechests.model;
+
+import net.minecraft.core.BlockPos;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LockRecordTest {
+    private static final UUID OWNER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID JAVA_STEVE = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    private static final UUID BEDROCK_STEVE = UUID.fromString("00000000-0000-0000-0009-000000000003");
+    private static final UUID OTHER_JAVA_STEVE = UUID.fromString("00000000-0000-0000-0000-000000000004");
+
+    private static LockRecord lockAllowing(Set<String> allowedUsers, Map<String, UUID> resolvedUsers) {
+        return new LockRecord(OWNER, "Owner", new BlockPos(0, 64, 1), Set.of(new BlockPos(0, 64, 0)),
+            allowedUsers, resolvedUsers, 0L, 0L);
+    }
+
+    @Test
+    void resolvedNameStillMatchesFloodgatePlayer() {
+        LockRecord lock = lockAllowing(Set.of("Steve"), Map.of("Steve", JAVA_STEVE));
+
+        assertTrue(lock.isUserAllowed(BEDROCK_STEVE, ".Steve", "."));
+    }
+
+    @Test
+    void resolvedNameStillMatchesNormalizedName() {
+        LockRecord lock = lockAllowing(Set.of("Steve_X"), Map.of("Steve_X", JAVA_STEVE));
+
+        assertTrue(lock.isUserAllowed(BEDROCK_STEVE, ".Steve X", "."));
+    }
+
+    @Test
+    void resolvedNameMatchesUuidAfterRename() {
+        LockRecord lock = lockAllowing(Set.of("Steve"), Map.of("Steve", JAVA_STEVE));
+
+        assertTrue(lock.isUserAllowed(JAVA_STEVE, "Alex", "."));
+    }
+
+    @Test
+    void resolvedNameDoesNotMatchJavaPlayerByName() {
+        LockRecord lock = lockAllowing(Set.of("Steve"), Map.of("Steve", JAVA_STEVE));
+
+        assertFalse(lock.isUserAllowed(OTHER_JAVA_STEVE, "Steve", "."));
+    }
+
+    @Test
+    void unresolvedNameMatchesByName() {
+        LockRecord lock = lockAllowing(Set.of("Steve_X"), Map.of());
+
+        assertTrue(lock.isUserAllowed(JAVA_STEVE, "steve x", "."));
+    }
+
+    @Test
+    void otherPlayerIsDenied() {
+        LockRecord lock = lockAllowing(Set.of("Steve"), Map.of("Steve", JAVA_STEVE));
+
+        assertFalse(lock.isUserAllowed(BEDROCK_STEVE, ".Alex", "."));
+    }
+}
@@ -0,0 +1,92 @@
+package com.simpleforapanda.privatechests.state;
+
+import com.simpleforapanda.privatechests.PrivateChests;
+import com.simpleforapanda.privatechests.model.LockRecord;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Memory and lookup latency of the packed-long position index against the
+ * {@code ConcurrentHashMap<BlockPos, LockRecord>} it replaced, at 100k locks.
+ * Run with {@code ./gradlew test -Pbenchmark}.
+ */
+@EnabledIfSystemProperty(named = "privatechests.benchmark", matches = "true")
+class LockIndexBenchmarkTest {
+    private static final int LOCKS = 100_000;
+    private static final int LOOKUP_ROUNDS = 20;
+
+    @Test
+    void benchmarkPositionIndex() {
+        List<LockRecord> locks = LockSnapshotReaderTest.generateLocks(LOCKS);
+
+        // Probe every container and the block next to it, so half the lookups miss
+        long[] probes = new long[locks.size() * 2];
+        int index = 0;
+        for (LockRecord record : locks) {
+            BlockPos pos = record.getContainerPositions().iterator().next();
+            probes[index++] = pos.asLong();
+            probes[index++] = pos.west().asLong();
+        }
+
+        long before = usedHeap();
+        Map<BlockPos, LockRecord> boxed = new ConcurrentHashMap<>();
+        for (LockRecord record : locks) {
+            for (BlockPos pos : record.getContainerPositions()) {
+                boxed.put(pos.immutable(), record);
+            }
+        }
+        long boxedBytes = usedHeap() - before;
+
+        before = usedHeap();
+        Long2ObjectOpenHashMap<LockRecord> packed = new Long2ObjectOpenHashMap<>();
+        for (LockRecord record : locks) {
+            for (BlockPos pos : record.getContainerPositions()) {
+                packed.put(pos.asLong(), record);
+            }
+        }
+        long packedBytes = usedHeap() - before;
+        assertEquals(boxed.size(), packed.size());
+
+        // The boxed map needs a BlockPos per lookup, as the old callers created one
+        int boxedHits = 0;
+        int packedHits = 0;
+        long boxedNanos = 0;
+        long packedNanos = 0;
+        for (int round = 0; round < LOOKUP_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (long probe : probes) {
+                if (boxed.get(BlockPos.of(probe)) != null) {
+                    boxedHits++;
+                }
+            }
+            boxedNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (long probe : probes) {
+                if (packed.get(probe) != null) {
+                    packedHits++;
+                }
+            }
+            packedNanos += System.nanoTime() - start;
+        }
+        assertEquals(boxedHits, packedHits);
+
+        long lookups = (long) probes.length * LOOKUP_ROUNDS;
+        PrivateChests.LOGGER.info("{} locks ({} positions): ConcurrentHashMap<BlockPos> {} KB, {} ns/lookup; Long2ObjectOpenHashMap {} KB, {} ns/lookup",
+            LOCKS, packed.size(), boxedBytes >> 10, boxedNanos / lookups, packedBytes >> 10, packedNanos / lookups);
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
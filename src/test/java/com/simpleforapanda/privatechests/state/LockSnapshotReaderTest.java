@@ -0,0 +1,211 @@
+package com.simpleforapanda.privatechests.state;
+
+import com.simpleforapanda.privatechests.PrivateChests;
+import com.simpleforapanda.privatechests.model.LockRecord;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class LockSnapshotReaderTest {
+    private static final int FORMAT = 2;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Generate locks on a grid, every fourth one a double chest, with a few allowed users each.
+     */
+    static List<LockRecord> generateLocks(int count) {
+        List<LockRecord> locks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int x = (i % 1000) * 3;
+            int z = (i / 1000) * 3;
+            BlockPos container = new BlockPos(x, 64, z);
+            Set<BlockPos> containers = i % 4 == 0 ? Set.of(container, container.east()) : Set.of(container);
+            UUID owner = new UUID(0L, i % 500);
+            locks.add(new LockRecord(owner, "Owner" + (i % 500), container.south(), containers,
+                Set.of("Friend" + (i % 37), "Friend" + (i % 11)), i, i));
+        }
+        return locks;
+    }
+
+    private Path writeSnapshot(List<LockRecord> locks, long journalSeq) throws IOException {
+        CompoundTag data = new LockState.Snapshot(locks, List.of()).encode();
+        data.putLong("JournalSeq", journalSeq);
+
+        CompoundTag root = new CompoundTag();
+        root.put("data", data);
+        root.putInt("DataVersion", 0);
+
+        Path file = tempDir.resolve("private_chests.dat");
+        NbtIo.writeCompressed(root, file);
+        return file;
+    }
+
+    private static long read(Path file, LockState state) throws IOException {
+        LockSnapshotReader reader = new LockSnapshotReader(state);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            NbtIo.parse(in, reader, NbtAccounter.unlimitedHeap());
+        }
+        return reader.finish();
+    }
+
+    @Test
+    void roundTripsSnapshot() throws IOException {
+        List<LockRecord> locks = generateLocks(2_000);
+        Path file = writeSnapshot(locks, 42L);
+
+        LockState state = new LockState();
+        assertEquals(42L, read(file, state));
+        assertEquals(locks.size(), state.getLockCount());
+
+        for (LockRecord expected : locks) {
+            for (BlockPos pos : expected.getContainerPositions()) {
+                LockRecord loaded = state.findLock(pos.asLong());
+                assertEquals(expected, loaded);
+                assertEquals(expected.getAllowedUsers(), loaded.getAllowedUsers());
+                assertEquals(expected.getOwnerName(), loaded.getOwnerName());
+            }
+            assertEquals(expected, state.findLockBySign(expected.getSignPos().asLong()));
+        }
+        assertFalse(state.isCompactionRequested());
+    }
+
+    @Test
+    void holdsRecordsReadBeforeTheFormat() throws IOException {
+        List<LockRecord> locks = generateLocks(10);
+        ListTag lockList = new ListTag();
+        for (LockRecord record : locks) {
+            lockList.add(record.toNbt());
+        }
+
+        // Written by hand: a CompoundTag doesn't keep its key order, so Locks could land either side of Format
+        Path file = tempDir.resolve("reordered.dat");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file))))) {
+            out.writeByte(Tag.TAG_COMPOUND);
+            out.writeUTF("");
+            out.writeByte(Tag.TAG_COMPOUND);
+            out.writeUTF("data");
+
+            // Unknown keys are skipped, nested or not
+            CompoundTag unknown = new CompoundTag();
+            unknown.put("Nested", lockList.copy());
+            out.writeByte(Tag.TAG_COMPOUND);
+            out.writeUTF("Unknown");
+            unknown.write(out);
+
+            out.writeByte(Tag.TAG_LIST);
+            out.writeUTF("Locks");
+            lockList.write(out);
+            out.writeByte(Tag.TAG_INT);
+            out.writeUTF("Format");
+            out.writeInt(FORMAT);
+            out.writeByte(Tag.TAG_LONG);
+            out.writeUTF("JournalSeq");
+            out.writeLong(7L);
+            out.writeByte(Tag.TAG_END);
+            out.writeByte(Tag.TAG_END);
+        }
+
+        LockState state = new LockState();
+        assertEquals(7L, read(file, state));
+        assertEquals(locks.size(), state.getLockCount());
+        for (LockRecord expected : locks) {
+            assertEquals(expected, state.findLockBySign(expected.getSignPos().asLong()));
+        }
+    }
+
+    @Test
+    void parksLocksOfTheLegacyList() throws IOException {
+        List<LockRecord> locks = generateLocks(3);
+        List<LockRecord> legacy = generateLocks(5).subList(3, 5);
+
+        CompoundTag data = new LockState.Snapshot(locks, legacy).encode();
+        CompoundTag root = new CompoundTag();
+        root.put("data", data);
+        Path file = tempDir.resolve("legacy.dat");
+        NbtIo.writeCompressed(root, file);
+
+        LockState state = new LockState();
+        read(file, state);
+        assertEquals(locks.size(), state.getLockCount());
+        assertEquals(legacy.size(), state.snapshot().legacyLocks().size());
+    }
+
+    /**
+     * Load time and heap peak of a streamed load against reading the whole tag tree first
+     * (the previous loader). Run with {@code ./gradlew test -Pbenchmark}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "privatechests.benchmark", matches = "true")
+    void benchmarkLoad() throws IOException {
+        for (int count : new int[]{10_000, 100_000, 1_000_000}) {
+            Path file = writeSnapshot(generateLocks(count), 0L);
+
+            resetHeapPeak();
+            long startNanos = System.nanoTime();
+            LockState streamed = new LockState();
+            read(file, streamed);
+            long streamedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            long streamedPeak = heapPeak();
+            assertEquals(count, streamed.getLockCount());
+            streamed = null;
+
+            resetHeapPeak();
+            startNanos = System.nanoTime();
+            LockState tree = new LockState();
+            CompoundTag data = NbtIo.readCompressed(file, NbtAccounter.unlimitedHeap()).getCompoundOrEmpty("data");
+            for (Tag lockTag : data.getListOrEmpty("Locks")) {
+                tree.acceptLoadedLock(LockRecord.fromNbt((CompoundTag) lockTag), FORMAT, false);
+            }
+            long treeMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            long treePeak = heapPeak();
+            assertEquals(count, tree.getLockCount());
+
+            PrivateChests.LOGGER.info("{} locks: streamed {} ms, heap peak {} MB; tag tree {} ms, heap peak {} MB",
+                count, streamedMillis, streamedPeak >> 20, treeMillis, treePeak >> 20);
+            Files.delete(file);
+        }
+    }
+
+    static void resetHeapPeak() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    static long heapPeak() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}